@@ -0,0 +1,241 @@
+/**
+ * Rolling per-conversation context for prompt assembly
+ *
+ * Each warm container keeps, per conversation, a ring buffer of the most recent
+ * turns, a running token estimate and an extractive summary of older turns.
+ * On every invocation only the turns newer than the cached high-water mark are
+ * read from DynamoDB, so the cost of building a prompt stays constant no matter
+ * how long the conversation has run.
+ *
+ * The high-water mark only advances from what was read back from DynamoDB, and each
+ * read overlaps the previous one by a short window. Turns are de-duplicated by request
+ * ID and type, so a turn written by another container with an earlier timestamp
+ * (concurrent requests, clock skew between hosts) is still picked up.
+ */
+
+const MAX_SUMMARY_CHARS = 2000;
+const SUMMARY_SNIPPET_CHARS = 160;
+
+/**
+ * Rough token estimate (~4 characters per token for English text)
+ * @param {string} text - Text to measure
+ * @returns {number} - Estimated token count
+ */
+function estimateTokens(text) {
+    return Math.ceil((text || '').length / 4);
+}
+
+/**
+ * Convert a Conversation item from DynamoDB into a chat turn
+ * @param {Object} item - Conversation item
+ * @returns {Object} - Turn with role, content and timestamp
+ */
+function toTurn(item) {
+    return {
+        key: `${item.requestId || item.timestamp}#${item.type}`,
+        role: item.type === 'INPUT' ? 'user' : 'assistant',
+        content: (item.type === 'INPUT' ? item.transcript : item.text) || '',
+        timestamp: item.timestamp
+    };
+}
+
+class RollingContext {
+    constructor(maxTurns) {
+        this.turns = new Array(maxTurns);
+        this.start = 0;
+        this.size = 0;
+        this.turnTokens = 0;
+        this.summary = '';
+        this.highWater = 0; // Newest timestamp read back from DynamoDB
+        this.seen = new Map(); // Turn key -> timestamp, for turns inside the overlap window
+        this.lastAccess = Date.now();
+    }
+
+    /**
+     * Append a turn, folding the oldest turn into the summary once the buffer is full
+     * @param {Object} turn - Turn with role, content and timestamp
+     */
+    append(turn) {
+        if (this.seen.has(turn.key)) {
+            return;
+        }
+        this.seen.set(turn.key, turn.timestamp);
+        const capacity = this.turns.length;
+        if (this.size === capacity) {
+            const evicted = this.turns[this.start];
+            this.turnTokens -= estimateTokens(evicted.content);
+            this.summarize(evicted);
+            this.turns[this.start] = turn;
+            this.start = (this.start + 1) % capacity;
+        } else {
+            this.turns[(this.start + this.size) % capacity] = turn;
+            this.size++;
+        }
+        this.turnTokens += estimateTokens(turn.content);
+    }
+
+    /**
+     * Advance the high-water mark after a read and forget keys that can no longer be re-read
+     * @param {number} timestamp - Newest timestamp returned by the read
+     * @param {number} overlapMs - Overlap window of the next read
+     */
+    advance(timestamp, overlapMs) {
+        this.highWater = Math.max(this.highWater, timestamp);
+        for (const [key, turnTimestamp] of this.seen) {
+            if (turnTimestamp < this.highWater - overlapMs) {
+                this.seen.delete(key);
+            }
+        }
+    }
+
+    /**
+     * Extractive summary update: keep a short snippet of each evicted turn and
+     * drop the oldest snippets once the summary exceeds its character budget
+     */
+    summarize(turn) {
+        const speaker = turn.role === 'user' ? 'User' : 'Assistant';
+        const snippet = turn.content.length > SUMMARY_SNIPPET_CHARS
+            ? turn.content.substring(0, SUMMARY_SNIPPET_CHARS) + '...'
+            : turn.content;
+        this.summary = this.summary ? `${this.summary}\n${speaker}: ${snippet}` : `${speaker}: ${snippet}`;
+        while (this.summary.length > MAX_SUMMARY_CHARS) {
+            const cut = this.summary.indexOf('\n');
+            this.summary = cut === -1 ? this.summary.substring(this.summary.length - MAX_SUMMARY_CHARS) : this.summary.substring(cut + 1);
+        }
+    }
+
+    get tokenCount() {
+        return this.turnTokens + estimateTokens(this.summary);
+    }
+
+    /**
+     * @returns {Array} - Recent turns, oldest first, in the chat message format
+     */
+    messages() {
+        const result = [];
+        for (let i = 0; i < this.size; i++) {
+            const turn = this.turns[(this.start + i) % this.turns.length];
+            result.push({ role: turn.role, content: turn.content });
+        }
+        return result;
+    }
+}
+
+/**
+ * Create a bounded cache of rolling conversation contexts
+ * @param {Object} options - dynamoDB client, tableName, maxTurns, maxConversations, idleTtlMs, overlapMs
+ * @returns {Object} - Cache with load() and recordTurn()
+ */
+function createConversationContextCache(options) {
+    const { dynamoDB, tableName } = options;
+    const maxTurns = options.maxTurns || 20;
+    const maxConversations = options.maxConversations || 500;
+    const idleTtlMs = options.idleTtlMs || 30 * 60 * 1000;
+    const overlapMs = options.overlapMs || 5000;
+
+    // Map iteration order doubles as LRU order: entries are re-inserted on access
+    const contexts = new Map();
+
+    function evict(now) {
+        for (const [conversationId, context] of contexts) {
+            if (contexts.size <= maxConversations && now - context.lastAccess < idleTtlMs) {
+                break;
+            }
+            contexts.delete(conversationId);
+        }
+    }
+
+    function touch(conversationId) {
+        const now = Date.now();
+        let context = contexts.get(conversationId);
+        if (context) {
+            contexts.delete(conversationId);
+        } else {
+            context = new RollingContext(maxTurns);
+        }
+        context.lastAccess = now;
+        contexts.set(conversationId, context);
+        evict(now);
+        return context;
+    }
+
+    /**
+     * Fetch only the turns written after the cached high-water mark, less the overlap window.
+     * A cold context starts from the most recent maxTurns turns. A warm context pages
+     * forward in timestamp order, so turns written by other containers since the last
+     * visit are all appended and the ones pushed out of the buffer reach the summary.
+     */
+    async function catchUp(conversationId, context) {
+        if (context.highWater === 0) {
+            const response = await dynamoDB.query({
+                TableName: tableName,
+                KeyConditionExpression: 'conversationId = :cid',
+                ExpressionAttributeValues: { ':cid': conversationId },
+                Limit: maxTurns,
+                ScanIndexForward: false // Most recent first
+            }).promise();
+
+            response.Items.reverse().forEach(item => context.append(toTurn(item)));
+            if (response.Items.length > 0) {
+                context.advance(response.Items[response.Items.length - 1].timestamp, overlapMs);
+            }
+            return;
+        }
+
+        let exclusiveStartKey;
+        do {
+            const response = await dynamoDB.query({
+                TableName: tableName,
+                KeyConditionExpression: 'conversationId = :cid AND #ts > :since',
+                ExpressionAttributeNames: { '#ts': 'timestamp' },
+                ExpressionAttributeValues: {
+                    ':cid': conversationId,
+                    ':since': Math.max(0, context.highWater - overlapMs)
+                },
+                ExclusiveStartKey: exclusiveStartKey,
+                ScanIndexForward: true // Oldest first
+            }).promise();
+
+            response.Items.forEach(item => {
+                context.append(toTurn(item));
+                context.advance(item.timestamp, overlapMs);
+            });
+            exclusiveStartKey = response.LastEvaluatedKey;
+        } while (exclusiveStartKey);
+    }
+
+    return {
+        /**
+         * Bring the rolling context for a conversation up to date and return it
+         * @param {string} conversationId - Conversation ID
+         * @returns {Promise<RollingContext>} - Rolling context
+         */
+        async load(conversationId) {
+            const context = touch(conversationId);
+            try {
+                await catchUp(conversationId, context);
+            } catch (error) {
+                console.error('Error refreshing conversation context:', error);
+            }
+            return context;
+        },
+
+        /**
+         * Record a turn this container has just written. The high-water mark is left alone:
+         * it only advances from DynamoDB reads, and the re-read of this turn is de-duplicated.
+         * @param {string} conversationId - Conversation ID
+         * @param {Object} item - Conversation item as written to DynamoDB
+         */
+        recordTurn(conversationId, item) {
+            const context = contexts.get(conversationId);
+            if (context) {
+                context.append(toTurn(item));
+            }
+        }
+    };
+}
+
+module.exports = {
+    createConversationContextCache,
+    estimateTokens
+};
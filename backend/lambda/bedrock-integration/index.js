@@ -1,6 +1,7 @@
 const AWS = require('aws-sdk');
 const { v4: uuidv4 } = require('uuid');
 const { textToSpeechWithNovaSonic } = require('./nova-sonic-tts');
+const { createConversationContextCache } = require('./conversation-context');
 
 // Initialize AWS services
 const bedrock = new AWS.BedrockRuntime();
@@ -14,6 +15,20 @@ const AUDIO_BUCKET = process.env.AUDIO_BUCKET || 'voice-assistant-audio-storage'
 const OPENSEARCH_DOMAIN = process.env.OPENSEARCH_DOMAIN;
 const REGION = process.env.REGION || 'us-east-1';
 const MAX_CONVERSATION_HISTORY = 10; // Number of previous exchanges to include in context
+const MAX_CACHED_CONVERSATIONS = parseInt(process.env.MAX_CACHED_CONVERSATIONS || '500', 10);
+const CONTEXT_IDLE_TTL_MS = parseInt(process.env.CONTEXT_IDLE_TTL_MS || '1800000', 10);
+
+// Rolling conversation contexts, kept across invocations of a warm container
+const conversationContexts = createConversationContextCache({
+    dynamoDB,
+    tableName: CONVERSATION_TABLE,
+    maxTurns: MAX_CONVERSATION_HISTORY * 2, // Both user inputs and AI responses
+    maxConversations: MAX_CACHED_CONVERSATIONS,
+    idleTtlMs: CONTEXT_IDLE_TTL_MS
+});
+
+// Spoken when response generation fails
+const FALLBACK_RESPONSE = "I'm sorry, I encountered an error while processing your request. Please try again later.";
 
 // Nova Sonic model ID
 const NOVA_SONIC_MODEL_ID = 'anthropic.claude-3-sonnet-20240229-v1:0';
@@ -25,7 +40,7 @@ exports.handler = async (event) => {
     console.log('Received event:', JSON.stringify(event));
     
     try {
-        const { conversationId, userId, requestId, transcript } = event;
+        const { conversationId, userId, requestId, transcript, speculative, precomputedResponse } = event;
         
         if (!conversationId || !transcript) {
             console.error('Missing required parameters');
@@ -35,14 +50,28 @@ exports.handler = async (event) => {
             };
         }
         
-        // Get conversation history
-        const history = await getConversationHistory(conversationId);
-        
-        // Retrieve relevant knowledge from the knowledge base
-        const relevantKnowledge = await retrieveRelevantKnowledge(transcript);
+        // Speculative calls only generate text; nothing is spoken, stored or sent
+        if (speculative) {
+            const speculatedResponse = await generateResponseForTranscript(conversationId, transcript);
+            if (speculatedResponse === FALLBACK_RESPONSE) {
+                return { statusCode: 502, body: JSON.stringify({ error: 'Speculative generation failed' }) };
+            }
+            return {
+                statusCode: 200,
+                body: JSON.stringify({ conversationId, response: speculatedResponse })
+            };
+        }
         
-        // Generate response using Nova Sonic model
-        const aiResponse = await generateAIResponse(transcript, history, relevantKnowledge);
+        // Reuse a response generated speculatively from a matching partial transcript. The
+        // rolling context is still brought up to date first: recording the OUTPUT turn below
+        // advances its high-water mark past the INPUT turn, which would otherwise never be read.
+        let aiResponse;
+        if (precomputedResponse) {
+            await conversationContexts.load(conversationId);
+            aiResponse = precomputedResponse;
+        } else {
+            aiResponse = await generateResponseForTranscript(conversationId, transcript);
+        }
         
         // Convert response to speech
         const audioBase64 = await textToSpeech(aiResponse);
@@ -58,19 +87,21 @@ exports.handler = async (event) => {
         
         // Save response in DynamoDB
         const timestamp = Date.now();
+        const responseItem = {
+            conversationId,
+            timestamp,
+            userId,
+            requestId: `${requestId}-response`,
+            type: 'OUTPUT',
+            text: aiResponse,
+            audioS3Path: s3Key,
+            status: 'COMPLETED'
+        };
         await dynamoDB.put({
             TableName: CONVERSATION_TABLE,
-            Item: {
-                conversationId,
-                timestamp,
-                userId,
-                requestId: `${requestId}-response`,
-                type: 'OUTPUT',
-                text: aiResponse,
-                audioS3Path: s3Key,
-                status: 'COMPLETED'
-            }
+            Item: responseItem
         }).promise();
+        conversationContexts.recordTurn(conversationId, responseItem);
         
         // Send real-time update via WebSocket
         await notifyWebSocket(userId, conversationId, {
@@ -100,33 +131,30 @@ exports.handler = async (event) => {
 };
 
 /**
- * Retrieve conversation history from DynamoDB
+ * Build the prompt context for a transcript and generate the AI response
+ */
+async function generateResponseForTranscript(conversationId, transcript) {
+    // Get conversation history
+    const { history, summary } = await getConversationHistory(conversationId);
+    
+    // Retrieve relevant knowledge from the knowledge base
+    const relevantKnowledge = await retrieveRelevantKnowledge(transcript);
+    
+    // Generate response using Nova Sonic model
+    return generateAIResponse(transcript, history, relevantKnowledge, summary);
+}
+
+/**
+ * Retrieve conversation history from the rolling context cache.
+ * Only turns written since the previous invocation are read from DynamoDB.
  */
 async function getConversationHistory(conversationId) {
-    try {
-        const response = await dynamoDB.query({
-            TableName: CONVERSATION_TABLE,
-            KeyConditionExpression: 'conversationId = :cid',
-            ExpressionAttributeValues: {
-                ':cid': conversationId
-            },
-            Limit: MAX_CONVERSATION_HISTORY * 2, // Get both user inputs and AI responses
-            ScanIndexForward: false // Most recent first
-        }).promise();
-        
-        // Transform into a format suitable for context window
-        const history = response.Items.reverse().map(item => {
-            return {
-                role: item.type === 'INPUT' ? 'user' : 'assistant',
-                content: item.type === 'INPUT' ? item.transcript : item.text
-            };
-        });
-        
-        return history;
-    } catch (error) {
-        console.error('Error retrieving conversation history:', error);
-        return [];
-    }
+    const context = await conversationContexts.load(conversationId);
+    console.log(`Conversation context: ${context.size} turns, ~${context.tokenCount} tokens`);
+    return {
+        history: context.messages(),
+        summary: context.summary
+    };
 }
 
 /**
@@ -157,7 +185,7 @@ async function retrieveRelevantKnowledge(query) {
 /**
  * Generate AI response using Nova Sonic model
  */
-async function generateAIResponse(userInput, history, relevantKnowledge) {
+async function generateAIResponse(userInput, history, relevantKnowledge, summary) {
     try {
         // Build messages array for the model
         const messages = [];
@@ -183,6 +211,8 @@ async function generateAIResponse(userInput, history, relevantKnowledge) {
             
             Today's date is ${new Date().toLocaleDateString()}
             
+            ${summary ? `Summary of earlier parts of this conversation:\n${summary}` : ''}
+            
             ${relevantKnowledge ? `Here is some relevant information that may help with your response:\n${relevantKnowledge}` : ''}`
         });
         
@@ -230,7 +260,7 @@ async function generateAIResponse(userInput, history, relevantKnowledge) {
         return aiMessage;
     } catch (error) {
         console.error('Error generating AI response:', error);
-        return "I'm sorry, I encountered an error while processing your request. Please try again later.";
+        return FALLBACK_RESPONSE;
     }
 }
 
@@ -1,6 +1,7 @@
 const AWS = require('aws-sdk');
 const { v4: uuidv4 } = require('uuid');
 const { transcribeAudioWithNovaSonic } = require('./nova-sonic-streaming');
+const { createSpeculation } = require('./speculative-response');
 
 // Initialize AWS services
 const s3 = new AWS.S3();
@@ -12,6 +13,10 @@ const AUDIO_BUCKET = process.env.AUDIO_BUCKET || 'voice-assistant-audio-storage'
 const REGION = process.env.REGION || 'us-east-1';
 const CONVERSATION_TABLE = process.env.CONVERSATION_TABLE;
 
+// Speculative response generation on stable partial transcripts
+const SPECULATION_ENABLED = process.env.SPECULATION_ENABLED === 'true';
+const SPECULATION_STABLE_MS = parseInt(process.env.SPECULATION_STABLE_MS || '300', 10);
+
 /**
  * Main Lambda handler for processing voice input
  */
@@ -41,53 +46,103 @@ exports.handler = async (event) => {
 async function handleVoiceProcessing(event) {
     // Parse the incoming request
     const body = JSON.parse(event.body);
-    const { audioData, userId, sessionId, conversationId } = body;
+    const { audioData, s3Key: storedKey, userId, sessionId, conversationId, requestId: retryRequestId } = body;
     
-    if (!audioData) {
-        return formatResponse(400, { error: 'Missing audioData in request body' });
+    if (!audioData && !storedKey) {
+        return formatResponse(400, { error: 'Missing audioData or s3Key in request body' });
+    }
+    // Batch jobs pass recordings already in the bucket; only the caller's own uploads are readable
+    const isOwnRecording = (key) => key.startsWith(`input/${userId}/`)
+        && !key.split('/').some(segment => segment === '.' || segment === '..');
+    if (storedKey && !isOwnRecording(storedKey)) {
+        return formatResponse(403, { error: 'Recording does not belong to the user' });
     }
 
-    // Generate a unique ID for this request
-    const requestId = uuidv4();
+    // Callers that may retry (batch jobs) supply a stable request ID; otherwise generate one
+    const requestId = retryRequestId || uuidv4();
     const actualConversationId = conversationId || uuidv4();
     
     try {
-        // Decode and save the audio data to S3
-        const buffer = Buffer.from(audioData, 'base64');
-        const s3Key = `input/${userId}/${actualConversationId}/${requestId}.wav`;
+        // A retried request whose turn was already stored is answered from the stored item,
+        // so transcription and the Bedrock call are not repeated
+        if (retryRequestId && conversationId) {
+            const existing = await findInputTurn(conversationId, retryRequestId);
+            if (existing) {
+                console.log(`Request ${retryRequestId} already processed, returning stored turn`);
+                return formatResponse(200, {
+                    message: 'Audio already processed',
+                    requestId,
+                    conversationId,
+                    timestamp: existing.timestamp,
+                    transcript: existing.transcript,
+                    duplicate: true
+                });
+            }
+        }
         
-        await s3.putObject({
-            Bucket: AUDIO_BUCKET,
-            Key: s3Key,
-            Body: buffer,
-            ContentType: 'audio/wav'
-        }).promise();
+        // Decode and save the audio data to S3, unless it is already stored there
+        const s3Key = storedKey || `input/${userId}/${actualConversationId}/${requestId}.wav`;
+        if (!storedKey) {
+            await s3.putObject({
+                Bucket: AUDIO_BUCKET,
+                Key: s3Key,
+                Body: Buffer.from(audioData, 'base64'),
+                ContentType: 'audio/wav'
+            }).promise();
+        }
         
-        // Process audio directly with Nova Sonic instead of starting a transcription job
-        const s3Object = await s3.getObject({
-            Bucket: AUDIO_BUCKET,
-            Key: s3Key
-        }).promise();
+        // The backend may already have transcribed the audio in-process; Nova Sonic is the fallback
+        let transcript = body.transcript;
+        let precomputedResponse = null;
+        const transcriptionSource = transcript ? 'local' : 'nova-sonic';
+        if (!transcript) {
+            // Process audio directly with Nova Sonic instead of starting a transcription job
+            const s3Object = await s3.getObject({
+                Bucket: AUDIO_BUCKET,
+                Key: s3Key
+            }).promise();
+        
+            // Start generating a response early once the partial transcript settles
+            const speculation = SPECULATION_ENABLED ? createSpeculation({
+                lambda,
+                functionName: 'BedrockIntegrationLambda',
+                stableMs: SPECULATION_STABLE_MS,
+                conversationId: actualConversationId,
+                userId,
+                requestId
+            }) : null;
         
-        // Use Nova Sonic for direct transcription with bidirectional streaming
-        const transcript = await transcribeAudioWithNovaSonic(s3Object.Body);
+            // Use Nova Sonic for direct transcription with bidirectional streaming
+            try {
+                transcript = await transcribeAudioWithNovaSonic(s3Object.Body,
+                    speculation ? { onPartial: speculation.onPartial } : {});
+            } catch (error) {
+                if (speculation) {
+                    speculation.cancel();
+                }
+                throw error;
+            }
+            precomputedResponse = speculation ? await speculation.resolve(transcript) : null;
+        }
         
         // Generate a unique ID to maintain compatibility with existing code
         const transcriptionId = `nova-sonic-${requestId}`;
         
         // Save conversation metadata
+        const inputTimestamp = Date.now();
         await dynamoDB.put({
             TableName: CONVERSATION_TABLE,
             Item: {
                 conversationId: actualConversationId,
-                timestamp: Date.now(),
+                timestamp: inputTimestamp,
                 userId,
                 sessionId,
                 requestId,
-                status: 'TRANSCRIBED', // Already transcribed with Nova Sonic
+                status: 'TRANSCRIBED', // Already transcribed locally or with Nova Sonic
                 type: 'INPUT',
                 audioS3Path: s3Key,
-                transcript: transcript
+                transcript: transcript,
+                transcriptionSource
             }
         }).promise();
         
@@ -99,7 +154,8 @@ async function handleVoiceProcessing(event) {
                 conversationId: actualConversationId,
                 userId,
                 requestId,
-                transcript
+                transcript,
+                precomputedResponse
             })
         }).promise();
 
@@ -107,6 +163,7 @@ async function handleVoiceProcessing(event) {
             message: 'Audio processed successfully', 
             requestId,
             conversationId: actualConversationId,
+            timestamp: inputTimestamp,
             transcript
         });
     } catch (error) {
@@ -115,6 +172,35 @@ async function handleVoiceProcessing(event) {
     }
 }
 
+/**
+ * Find the INPUT turn stored for a request in a conversation
+ * @param {string} conversationId - Conversation ID
+ * @param {string} requestId - Request ID
+ * @returns {Promise<Object|null>} - The stored item, or null if there is none
+ */
+async function findInputTurn(conversationId, requestId) {
+    let exclusiveStartKey;
+    do {
+        const response = await dynamoDB.query({
+            TableName: CONVERSATION_TABLE,
+            KeyConditionExpression: 'conversationId = :cid',
+            FilterExpression: 'requestId = :rid AND #type = :input',
+            ExpressionAttributeNames: { '#type': 'type' },
+            ExpressionAttributeValues: {
+                ':cid': conversationId,
+                ':rid': requestId,
+                ':input': 'INPUT'
+            },
+            ExclusiveStartKey: exclusiveStartKey
+        }).promise();
+        if (response.Items.length > 0) {
+            return response.Items[0];
+        }
+        exclusiveStartKey = response.LastEvaluatedKey;
+    } while (exclusiveStartKey);
+    return null;
+}
+
 /**
  * Handles transcription completion events from S3 notifications
  */
@@ -9,16 +9,17 @@ const bedrockRuntime = new BedrockRuntimeClient({ region: process.env.REGION ||
 /**
  * Process audio using Bedrock Nova Sonic for speech-to-text
  * @param {Buffer} audioBuffer - Audio buffer in WAV format
+ * @param {Object} options - Optional onPartial(transcript) callback for intermediate results
  * @returns {Promise<string>} - Transcribed text
  */
-async function transcribeAudioWithNovaSonic(audioBuffer) {
+async function transcribeAudioWithNovaSonic(audioBuffer, options = {}) {
     try {
         console.log('Starting Nova Sonic transcription');
         
         // Create stream command for bidirectional streaming
         const command = new StartStreamTranscriptionCommand({
             modelId: "anthropic.nova-sonic:latest",
-            include_intermediate_results: false,
+            include_intermediate_results: Boolean(options.onPartial),
             content_type: "audio/wav",
             accept: "application/json",
             input_stream: audioBuffer, // Pass the audio buffer directly
@@ -32,8 +33,18 @@ async function transcribeAudioWithNovaSonic(audioBuffer) {
         
         // Handle streaming response
         for await (const chunk of transcriptionResponse.transcriptionEvent) {
-            if (chunk.transcript && !chunk.is_partial) {
-                transcript += chunk.transcript.results[0]?.alternatives[0]?.words || '';
+            if (!chunk.transcript) {
+                continue;
+            }
+            const text = chunk.transcript.results[0]?.alternatives[0]?.words || '';
+            if (!chunk.is_partial) {
+                transcript += text;
+                if (options.onPartial) {
+                    options.onPartial(transcript);
+                }
+            } else if (options.onPartial) {
+                // Partial results cover the segment in progress, after all finalised segments
+                options.onPartial(transcript + text);
             }
         }
         
@@ -0,0 +1,165 @@
+/**
+ * Speculative LLM prefetch on stable partial transcripts
+ *
+ * While transcription is still streaming, a partial transcript that has not changed
+ * for SPECULATION_STABLE_MS starts response generation in the Bedrock integration
+ * Lambda in speculative mode (text generation only: no speech, storage or notification).
+ * When the final transcript arrives it either matches the speculated text and the
+ * generated response is reused, or it diverges and the speculative call is abandoned.
+ * Abandoning only drops this side's HTTP connection: the Bedrock integration Lambda keeps
+ * running and the full model call is still paid for. SpeculationWasted therefore counts
+ * complete generations whose output was discarded, not work that was stopped.
+ * Outcomes are published as CloudWatch metrics through the Embedded Metric Format.
+ */
+
+const METRIC_NAMESPACE = 'VoiceAssistant';
+
+/**
+ * Normalise a transcript for comparison: case, whitespace and trailing punctuation
+ * differences between partial and final results are not meaningful
+ * @param {string} text - Transcript text
+ * @returns {string} - Normalised text
+ */
+function normalizeTranscript(text) {
+    return (text || '').toLowerCase().replace(/\s+/g, ' ').replace(/[\s.,!?]+$/, '').trim();
+}
+
+/**
+ * Publish a metric through a CloudWatch Embedded Metric Format log line
+ * @param {string} name - Metric name
+ * @param {number} value - Metric value
+ * @param {string} unit - CloudWatch unit
+ */
+function emitMetric(name, value, unit = 'Count') {
+    console.log(JSON.stringify({
+        _aws: {
+            Timestamp: Date.now(),
+            CloudWatchMetrics: [{
+                Namespace: METRIC_NAMESPACE,
+                Dimensions: [['FunctionName']],
+                Metrics: [{ Name: name, Unit: unit }]
+            }]
+        },
+        FunctionName: process.env.AWS_LAMBDA_FUNCTION_NAME || 'VoiceProcessingLambda',
+        [name]: value
+    }));
+}
+
+/**
+ * Create a speculation tracker for a single voice turn
+ * @param {Object} options - lambda client, functionName, stableMs and the turn's conversationId, userId, requestId
+ * @returns {Object} - Tracker with onPartial(), resolve() and cancel()
+ */
+function createSpeculation(options) {
+    const { lambda, functionName, stableMs, conversationId, userId, requestId } = options;
+
+    let stableTimer = null;
+    let latestPartial = '';
+    let inFlight = null; // { transcript, request, promise, startedAt }
+
+    function cancelInFlight(reason) {
+        if (!inFlight) {
+            return;
+        }
+        console.log(`Abandoning speculative response (${reason})`);
+        // Stops waiting for the result; the invoked Lambda still runs to completion
+        inFlight.request.abort();
+        emitMetric('SpeculationWasted', 1);
+        inFlight = null;
+    }
+
+    function start(transcript) {
+        const request = lambda.invoke({
+            FunctionName: functionName,
+            InvocationType: 'RequestResponse',
+            Payload: JSON.stringify({
+                speculative: true,
+                conversationId,
+                userId,
+                requestId,
+                transcript
+            })
+        });
+        const promise = request.promise()
+            .then(result => {
+                const response = JSON.parse(result.Payload);
+                return {
+                    response: response.statusCode === 200 ? JSON.parse(response.body).response : null,
+                    completedAt: Date.now()
+                };
+            })
+            .catch(error => {
+                if (error.code !== 'RequestAbortedError') {
+                    console.error('Speculative response failed:', error);
+                }
+                return { response: null, completedAt: Date.now() };
+            });
+        inFlight = { transcript: normalizeTranscript(transcript), request, promise, startedAt: Date.now() };
+        emitMetric('SpeculationStarted', 1);
+    }
+
+    return {
+        /**
+         * Feed the latest partial transcript; restarts the stability timer whenever it changes
+         * @param {string} transcript - Partial transcript so far
+         */
+        onPartial(transcript) {
+            if (normalizeTranscript(transcript) === normalizeTranscript(latestPartial)) {
+                return;
+            }
+            latestPartial = transcript;
+            clearTimeout(stableTimer);
+            if (inFlight && inFlight.transcript !== normalizeTranscript(transcript)) {
+                cancelInFlight('partial transcript changed');
+            }
+            stableTimer = setTimeout(() => {
+                if (!inFlight && normalizeTranscript(latestPartial)) {
+                    start(latestPartial);
+                }
+            }, stableMs);
+        },
+
+        /**
+         * Settle speculation against the final transcript
+         * @param {string} finalTranscript - Final transcript
+         * @returns {Promise<string|null>} - Speculated response if it can be reused, otherwise null
+         */
+        async resolve(finalTranscript) {
+            clearTimeout(stableTimer);
+            if (!inFlight) {
+                emitMetric('SpeculationSkipped', 1);
+                return null;
+            }
+            if (inFlight.transcript !== normalizeTranscript(finalTranscript)) {
+                cancelInFlight('final transcript diverged');
+                return null;
+            }
+
+            const { promise, startedAt } = inFlight;
+            const finalAt = Date.now();
+            inFlight = null;
+            const { response, completedAt } = await promise;
+            if (!response) {
+                emitMetric('SpeculationWasted', 1);
+                return null;
+            }
+            // Only the part of generation that overlapped transcription is saved
+            emitMetric('SpeculationHit', 1);
+            emitMetric('SpeculationSavedMs', Math.min(finalAt, completedAt) - startedAt, 'Milliseconds');
+            return response;
+        },
+
+        /**
+         * Abandon speculation, e.g. when transcription fails
+         */
+        cancel() {
+            clearTimeout(stableTimer);
+            cancelInFlight('turn abandoned');
+        }
+    };
+}
+
+module.exports = {
+    createSpeculation,
+    normalizeTranscript
+};
@@ -1,11 +1,20 @@
 package com.voiceassistant.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.voiceassistant.security.CachingJwtDecoder;
+import com.voiceassistant.security.RefreshingJwkSetSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
@@ -20,7 +29,7 @@ import java.util.List;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
         http
             .cors().configurationSource(corsConfigurationSource()).and()
             .csrf().disable()
@@ -29,14 +38,14 @@ public class SecurityConfig {
                 // Public endpoints
                 .requestMatchers("/api/health").permitAll()
                 .requestMatchers("/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
-                .requestMatchers("/ws/**").permitAll()
+                .requestMatchers("/ws/**", "/ws-binary").permitAll()
                 // Protected endpoints
                 .requestMatchers("/api/voice/**").authenticated()
                 .requestMatchers("/api/conversations/**").authenticated()
                 .anyRequest().authenticated()
             )
             .oauth2ResourceServer(oauth2 -> oauth2
-                .jwt(jwt -> jwt.decoder(jwtDecoder()))
+                .jwt(jwt -> jwt.decoder(jwtDecoder))
             );
         
         return http.build();
@@ -55,10 +64,29 @@ public class SecurityConfig {
         return source;
     }
     
+    // The loadtest profile supplies its own decoder and must not poll the identity provider
+    @Bean(destroyMethod = "close")
+    @Profile("!loadtest")
+    public RefreshingJwkSetSource jwkSetSource(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${voice-assistant.security.jwt.jwk-refresh-interval-ms:300000}") long refreshIntervalMillis,
+            @Value("${voice-assistant.security.jwt.jwk-max-stale-ms:86400000}") long maxStaleMillis) {
+        return new RefreshingJwkSetSource(jwkSetUri, refreshIntervalMillis, maxStaleMillis);
+    }
+    
     @Bean
-    public JwtDecoder jwtDecoder() {
-        // In a real implementation, this would use AWS Cognito configuration
-        // For development purposes, we'll configure with a placeholder
-        return NimbusJwtDecoder.withJwkSetUri("https://cognito-idp.{region}.amazonaws.com/{userPoolId}/.well-known/jwks.json").build();
+    @Profile("!loadtest")
+    public JwtDecoder jwtDecoder(
+            RefreshingJwkSetSource jwkSetSource,
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            @Value("${voice-assistant.security.jwt.token-cache-size:10000}") int tokenCacheSize) {
+        // Signatures are verified against the in-memory key set; Spring validates the claims
+        DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSetSource));
+        jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> { });
+        
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(jwtProcessor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return new CachingJwtDecoder(decoder, tokenCacheSize);
     }
 }
\ No newline at end of file
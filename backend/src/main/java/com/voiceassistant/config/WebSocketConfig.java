@@ -16,10 +16,17 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.setApplicationDestinationPrefixes("/app");
     }
 
+    /**
+     * "/ws" serves browsers through SockJS, which only carries text frames. "/ws-binary" is a
+     * plain WebSocket endpoint for clients that want CBOR events (subscribe to "<topic>/cbor").
+     * Tomcat negotiates permessage-deflate on both whenever the client offers it.
+     */
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws")
                 .setAllowedOrigins("*")
                 .withSockJS();
+        registry.addEndpoint("/ws-binary")
+                .setAllowedOrigins("*");
     }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.voiceassistant.controller;
+
+import com.voiceassistant.dto.BatchJobRequestDTO;
+import com.voiceassistant.dto.BatchJobStatusDTO;
+import com.voiceassistant.model.BatchJob;
+import com.voiceassistant.service.BatchVoiceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.validation.Valid;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/voice/batch")
+@RequiredArgsConstructor
+@Tag(name = "Batch Voice API", description = "API endpoints for bulk processing of recorded calls")
+public class BatchController {
+
+    private final BatchVoiceService batchVoiceService;
+
+    @PostMapping
+    @Operation(summary = "Submit batch job", description = "Process recordings already stored in the audio bucket")
+    public ResponseEntity<BatchJobStatusDTO> submitBatch(
+            @AuthenticationPrincipal Jwt principal,
+            @Valid @RequestBody BatchJobRequestDTO request) {
+        log.info("Received batch job with {} recordings for user: {}", request.getS3Keys().size(), request.getUserId());
+        
+        if (!request.getUserId().equals(principal.getSubject())) {
+            return forbidden();
+        }
+        for (String s3Key : request.getS3Keys()) {
+            if (!batchVoiceService.ownsRecording(principal.getSubject(), s3Key)) {
+                log.warn("Rejected batch job for user {}: recording {} is outside the user's input prefix",
+                        principal.getSubject(), s3Key);
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(BatchJobStatusDTO.error("Batch jobs can only process the authenticated user's recordings"));
+            }
+        }
+        try {
+            BatchJob job = batchVoiceService.submit(request.getUserId(), request.getSessionId(), request.getS3Keys());
+            return ResponseEntity.accepted().body(BatchJobStatusDTO.of(job));
+        } catch (Exception e) {
+            log.error("Error submitting batch job: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(BatchJobStatusDTO.error("Failed to submit batch job: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping(path = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload batch job", description = "Upload recordings and process them as a batch")
+    public ResponseEntity<BatchJobStatusDTO> uploadBatch(
+            @AuthenticationPrincipal Jwt principal,
+            @RequestParam String userId,
+            @RequestParam(required = false) String sessionId,
+            @RequestParam("files") List<MultipartFile> files) {
+        
+        log.info("Received batch upload with {} recordings for user: {}", files.size(), userId);
+        
+        if (!userId.equals(principal.getSubject())) {
+            return forbidden();
+        }
+        if (files.isEmpty()) {
+            return ResponseEntity.badRequest().body(BatchJobStatusDTO.error("At least one file is required"));
+        }
+        try {
+            BatchJob job = batchVoiceService.submitUploads(userId, sessionId, files);
+            return ResponseEntity.accepted().body(BatchJobStatusDTO.of(job));
+        } catch (Exception e) {
+            log.error("Error submitting batch upload: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(BatchJobStatusDTO.error("Failed to submit batch job: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get batch job status", description = "Retrieve progress of a batch job")
+    public ResponseEntity<BatchJobStatusDTO> getBatchStatus(
+            @AuthenticationPrincipal Jwt principal,
+            @PathVariable String jobId) {
+        // Jobs of other users are reported as not found
+        return batchVoiceService.getJobStatus(jobId, principal.getSubject())
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(BatchJobStatusDTO.error("Batch job not found: " + jobId)));
+    }
+    
+    private ResponseEntity<BatchJobStatusDTO> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(BatchJobStatusDTO.error("Batch jobs can only be submitted for the authenticated user"));
+    }
+}
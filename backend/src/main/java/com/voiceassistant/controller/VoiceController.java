@@ -1,16 +1,24 @@
 package com.voiceassistant.controller;
 
+import com.voiceassistant.dto.TranscriptSearchHitDTO;
 import com.voiceassistant.dto.VoiceRequestDTO;
 import com.voiceassistant.dto.VoiceResponseDTO;
+import com.voiceassistant.model.Conversation;
 import com.voiceassistant.service.LambdaService;
+import com.voiceassistant.service.ProcessingBudget;
 import com.voiceassistant.service.S3Service;
+import com.voiceassistant.service.TranscriptIndexService;
+import com.voiceassistant.transcription.TranscriptionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -28,32 +36,61 @@ public class VoiceController {
 
     private final LambdaService lambdaService;
     private final S3Service s3Service;
+    private final TranscriptIndexService transcriptIndexService;
+    private final ProcessingBudget processingBudget;
+    private final TranscriptionService transcriptionService;
+    
+    @Value("${voice-assistant.processing.interactive-wait-ms:10000}")
+    private long interactiveWaitMillis;
 
     @PostMapping("/process")
     @Operation(summary = "Process voice input", description = "Submit voice data for processing")
-    public ResponseEntity<VoiceResponseDTO> processVoice(@Valid @RequestBody VoiceRequestDTO request) {
+    public ResponseEntity<VoiceResponseDTO> processVoice(
+            @AuthenticationPrincipal Jwt principal,
+            @Valid @RequestBody VoiceRequestDTO request) {
         log.info("Received voice processing request for user: {}", request.getUserId());
         
+        // Turns are stored and indexed under the request's user, so it must be the caller
+        if (!request.getUserId().equals(principal.getSubject())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(VoiceResponseDTO.error("Voice input can only be submitted for the authenticated user"));
+        }
+        
         try {
             // Create a request payload for the Lambda function
             Map<String, Object> payload = new HashMap<>();
             payload.put("httpMethod", "POST");
             payload.put("path", "/voice/process");
-            payload.put("body", Map.of(
-                "audioData", request.getAudioData(),
-                "userId", request.getUserId(),
-                "sessionId", request.getSessionId(),
-                "conversationId", request.getConversationId()
-            ));
+            Map<String, Object> lambdaBody = new HashMap<>();
+            lambdaBody.put("audioData", request.getAudioData());
+            lambdaBody.put("userId", request.getUserId());
+            lambdaBody.put("sessionId", request.getSessionId());
+            lambdaBody.put("conversationId", request.getConversationId());
             
-            // Invoke the Lambda function
-            Map<String, Object> response = lambdaService.invokeVoiceProcessing(payload);
+            payload.put("body", lambdaBody);
+            
+            // Transcribe and invoke the Lambda function within the shared processing budget, so a
+            // request turned away at capacity never ties up a thread waiting on the local queue
+            if (!processingBudget.acquireInteractive(interactiveWaitMillis)) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(VoiceResponseDTO.error("Voice processing is at capacity, please retry"));
+            }
+            Map<String, Object> response;
+            try {
+                // Short utterances are transcribed in-process; otherwise the Lambda transcribes remotely
+                transcriptionService.transcribeLocally(request.getAudioData())
+                        .ifPresent(transcript -> lambdaBody.put("transcript", transcript));
+                response = lambdaService.invokeVoiceProcessing(payload);
+            } finally {
+                processingBudget.release();
+            }
             
             // Parse the response
             int statusCode = (Integer) response.get("statusCode");
             Map<String, Object> body = parseResponseBody(response);
+            indexTranscript(request, body);
             
-            if (statusCode == 202) {
+            if (statusCode >= 200 && statusCode < 300) {
                 // Processing started
                 String requestId = (String) body.get("requestId");
                 String conversationId = (String) body.get("conversationId");
@@ -135,6 +172,39 @@ public class VoiceController {
         ));
     }
     
+    @GetMapping("/conversations/search")
+    @Operation(summary = "Search conversation transcripts", description = "Find turns of a user's conversations mentioning all query terms")
+    public ResponseEntity<List<TranscriptSearchHitDTO>> searchTranscripts(
+            @AuthenticationPrincipal Jwt principal,
+            @RequestParam(required = false) String userId,
+            @RequestParam String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        // Users can only search their own conversations
+        String subject = principal.getSubject();
+        if (userId != null && !userId.equals(subject)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        log.info("Searching transcripts for user: {}", subject);
+        return ResponseEntity.ok(transcriptIndexService.search(subject, query, limit));
+    }
+    
+    private void indexTranscript(VoiceRequestDTO request, Map<String, Object> body) {
+        if (!(body.get("transcript") instanceof String transcript)) {
+            return;
+        }
+        transcriptIndexService.indexTurn(Conversation.builder()
+                .conversationId((String) body.get("conversationId"))
+                .timestamp(body.get("timestamp") instanceof Number timestamp ? timestamp.longValue() : System.currentTimeMillis())
+                .userId(request.getUserId())
+                .sessionId(request.getSessionId())
+                .requestId((String) body.get("requestId"))
+                .type("INPUT")
+                .status("TRANSCRIBED")
+                .transcript(transcript)
+                .build());
+    }
+    
     @SuppressWarnings("unchecked")
     private Map<String, Object> parseResponseBody(Map<String, Object> response) {
         String bodyStr = (String) response.get("body");
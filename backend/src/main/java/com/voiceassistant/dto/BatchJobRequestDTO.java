@@ -0,0 +1,25 @@
+package com.voiceassistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchJobRequestDTO {
+    
+    @NotBlank(message = "User ID is required")
+    private String userId;
+    
+    private String sessionId;
+    
+    @NotEmpty(message = "At least one S3 key is required")
+    private List<String> s3Keys; // Keys of recordings already in the audio bucket
+}
@@ -0,0 +1,40 @@
+package com.voiceassistant.dto;
+
+import com.voiceassistant.model.BatchJob;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchJobStatusDTO {
+    
+    private String jobId;
+    private String status;
+    private int total;
+    private long completed;
+    private long failed;
+    private String message;
+    
+    // Factory method for a snapshot of a job's progress
+    public static BatchJobStatusDTO of(BatchJob job) {
+        return BatchJobStatusDTO.builder()
+                .jobId(job.getJobId())
+                .status(job.getStatus())
+                .total(job.getItems().size())
+                .completed(job.countItems("COMPLETED"))
+                .failed(job.countItems("FAILED"))
+                .build();
+    }
+    
+    // Factory method for error response
+    public static BatchJobStatusDTO error(String message) {
+        return BatchJobStatusDTO.builder()
+                .status("ERROR")
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.voiceassistant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptSearchHitDTO {
+    
+    private String conversationId;
+    private long timestamp;
+    private String requestId;
+    private String type; // INPUT or OUTPUT
+    private String snippet;
+}
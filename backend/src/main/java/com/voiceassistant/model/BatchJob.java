@@ -0,0 +1,29 @@
+package com.voiceassistant.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchJob {
+    
+    private String jobId;
+    private String userId;
+    private String sessionId;
+    private String status; // RUNNING, COMPLETED
+    private long createdAt;
+    private Long updatedAt;
+    @Builder.Default
+    private List<BatchJobItem> items = new ArrayList<>();
+    
+    public long countItems(String itemStatus) {
+        return items.stream().filter(item -> itemStatus.equals(item.getStatus())).count();
+    }
+}
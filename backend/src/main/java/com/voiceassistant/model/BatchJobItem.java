@@ -0,0 +1,20 @@
+package com.voiceassistant.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchJobItem {
+    
+    private int index;
+    private String s3Key;
+    private String conversationId;
+    private String status; // PENDING, IN_FLIGHT, COMPLETED, FAILED
+    private String requestId; // Assigned before the first attempt and reused on retry
+    private String error;
+}
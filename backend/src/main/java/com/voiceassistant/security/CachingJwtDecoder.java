@@ -0,0 +1,75 @@
+package com.voiceassistant.security;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decoder that remembers successfully verified tokens until they expire, so repeated
+ * requests with the same bearer token skip signature verification. Entries are keyed by
+ * the SHA-256 hash of the token and the cache is bounded in size.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final int maxEntries;
+    private final Map<String, Jwt> verified = new ConcurrentHashMap<>();
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxEntries) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        Instant now = Instant.now();
+
+        Jwt cached = verified.get(key);
+        if (cached != null) {
+            if (now.isBefore(cached.getExpiresAt())) {
+                return cached;
+            }
+            verified.remove(key);
+        }
+
+        Jwt jwt = delegate.decode(token);
+        if (jwt.getExpiresAt() != null && now.isBefore(jwt.getExpiresAt())) {
+            if (verified.size() >= maxEntries) {
+                evict(now);
+            }
+            verified.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    /**
+     * Drop expired entries, then arbitrary ones until there is room again
+     */
+    private void evict(Instant now) {
+        verified.values().removeIf(jwt -> !now.isBefore(jwt.getExpiresAt()));
+        Iterator<String> keys = verified.keySet().iterator();
+        while (verified.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
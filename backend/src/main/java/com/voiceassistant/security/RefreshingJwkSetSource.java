@@ -0,0 +1,157 @@
+package com.voiceassistant.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JWK set source that keeps the parsed key set in memory and refreshes it in the background.
+ * Requests never wait on the identity provider once a key set has been loaded: a failed refresh
+ * keeps serving the previous set until it is older than the configured maximum staleness.
+ * A token signed with an unknown key id triggers a rate-limited immediate refresh, so key
+ * rotation is picked up without waiting for the next scheduled refresh.
+ * When no usable key set is held, request threads never queue behind the identity provider:
+ * only one of them fetches at a time, and after a failed fetch the others fail fast until
+ * the retry interval has passed.
+ */
+@Slf4j
+public class RefreshingJwkSetSource implements JWKSource<SecurityContext>, AutoCloseable {
+
+    private static final long MIN_ON_DEMAND_REFRESH_MILLIS = 30_000;
+    private static final long FAILED_REFRESH_RETRY_MILLIS = 5_000;
+
+    private final URI jwkSetUri;
+    private final long maxStaleMillis;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jwk-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile JWKSet jwkSet;
+    private volatile long fetchedAt;
+    private volatile long lastOnDemandRefresh;
+    private volatile long lastFailedAt;
+    private volatile KeySourceException lastFailure;
+
+    public RefreshingJwkSetSource(String jwkSetUri, long refreshIntervalMillis, long maxStaleMillis) {
+        this.jwkSetUri = URI.create(jwkSetUri);
+        this.maxStaleMillis = maxStaleMillis;
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        JWKSet current = jwkSet;
+        if (current == null || System.currentTimeMillis() - fetchedAt > maxStaleMillis) {
+            // No key set yet, or background refreshes have been failing for too long:
+            // fail closed unless a request-path refresh works
+            current = refreshOnRequestPath();
+        }
+
+        List<JWK> matches = jwkSelector.select(current);
+        long now = System.currentTimeMillis();
+        if (matches.isEmpty() && now - lastOnDemandRefresh > MIN_ON_DEMAND_REFRESH_MILLIS) {
+            lastOnDemandRefresh = now;
+            matches = jwkSelector.select(refreshOnRequestPath());
+        }
+        return matches;
+    }
+
+    /**
+     * Refresh from a request thread without ever waiting on another fetch. While a fetch is in
+     * flight, or shortly after one failed, the caller gets the failure instead of a network call.
+     */
+    private JWKSet refreshOnRequestPath() throws KeySourceException {
+        KeySourceException failure = lastFailure;
+        if (failure != null && System.currentTimeMillis() - lastFailedAt < FAILED_REFRESH_RETRY_MILLIS) {
+            throw new KeySourceException("JWK set unavailable: " + failure.getMessage(), failure);
+        }
+        if (!refreshLock.tryLock()) {
+            JWKSet current = jwkSet;
+            if (current != null && System.currentTimeMillis() - fetchedAt <= maxStaleMillis) {
+                return current;
+            }
+            throw new KeySourceException("JWK set is being fetched from " + jwkSetUri);
+        }
+        try {
+            return refresh();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (KeySourceException e) {
+            log.warn("Background JWK set refresh from {} failed, serving cached keys: {}", jwkSetUri, e.getMessage());
+        }
+    }
+
+    /**
+     * Fetch the key set, letting concurrent callers share a single request
+     */
+    private JWKSet refresh() throws KeySourceException {
+        long requestedAt = System.currentTimeMillis();
+        refreshLock.lock();
+        try {
+            if (jwkSet != null && fetchedAt >= requestedAt) {
+                return jwkSet;
+            }
+            HttpRequest request = HttpRequest.newBuilder(jwkSetUri)
+                    .timeout(Duration.ofSeconds(3))
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new KeySourceException("JWK set endpoint returned HTTP " + response.statusCode());
+            }
+            jwkSet = JWKSet.parse(response.body());
+            fetchedAt = System.currentTimeMillis();
+            lastFailure = null;
+            log.debug("Refreshed JWK set from {} ({} keys)", jwkSetUri, jwkSet.getKeys().size());
+            return jwkSet;
+        } catch (KeySourceException e) {
+            throw recordFailure(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeySourceException("Interrupted while fetching JWK set", e);
+        } catch (Exception e) {
+            throw recordFailure(new KeySourceException("Failed to fetch JWK set from " + jwkSetUri + ": " + e.getMessage(), e));
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private KeySourceException recordFailure(KeySourceException e) {
+        lastFailure = e;
+        lastFailedAt = System.currentTimeMillis();
+        return e;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,381 @@
+package com.voiceassistant.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voiceassistant.dto.BatchJobStatusDTO;
+import com.voiceassistant.model.BatchJob;
+import com.voiceassistant.model.BatchJobItem;
+import com.voiceassistant.model.Conversation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Processes bulk recordings through the voice processing Lambda with bounded parallelism.
+ * Batch work draws from the {@link ProcessingBudget} at background priority, progress is
+ * checkpointed to local disk after every item and streamed to the user's WebSocket topic,
+ * and unfinished jobs are resumed on startup without reprocessing completed items.
+ * Only running jobs are held in memory; finished jobs are archived to a subdirectory that
+ * is read on demand and purged after the retention period.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchVoiceService {
+
+    private final LambdaService lambdaService;
+    private final S3Service s3Service;
+    private final WebSocketService webSocketService;
+    private final TranscriptIndexService transcriptIndexService;
+    private final ProcessingBudget processingBudget;
+    private final ObjectMapper objectMapper;
+
+    private static final String ARCHIVE_DIR = "completed";
+    private static final String INPUT_PREFIX = "input/";
+
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+
+    @Value("${voice-assistant.batch.parallelism:8}")
+    private int parallelism;
+
+    @Value("${voice-assistant.batch.checkpoint-dir:data/batch-jobs}")
+    private String checkpointDir;
+
+    @Value("${voice-assistant.batch.retention-days:7}")
+    private int retentionDays;
+
+    @PostConstruct
+    public void start() {
+        workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "batch-voice");
+            thread.setDaemon(true);
+            return thread;
+        });
+        resumeJobs();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Create a job for recordings already stored in the audio bucket
+     *
+     * @param userId User ID
+     * @param sessionId Session ID, optional
+     * @param s3Keys Object keys of the recordings, all under the user's input prefix
+     * @return The created job
+     */
+    public BatchJob submit(String userId, String sessionId, List<String> s3Keys) {
+        for (String s3Key : s3Keys) {
+            if (!ownsRecording(userId, s3Key)) {
+                throw new IllegalArgumentException("Recording " + s3Key + " does not belong to user " + userId);
+            }
+        }
+        List<BatchJobItem> items = new ArrayList<>();
+        for (int i = 0; i < s3Keys.size(); i++) {
+            items.add(BatchJobItem.builder()
+                    .index(i)
+                    .s3Key(s3Keys.get(i))
+                    .conversationId(UUID.randomUUID().toString())
+                    .status("PENDING")
+                    .build());
+        }
+        BatchJob job = BatchJob.builder()
+                .jobId(UUID.randomUUID().toString())
+                .userId(userId)
+                .sessionId(sessionId)
+                .status("RUNNING")
+                .createdAt(Instant.now().toEpochMilli())
+                .items(items)
+                .build();
+
+        jobs.put(job.getJobId(), job);
+        checkpoint(job);
+        log.info("Created batch job {} with {} recordings for user {}", job.getJobId(), items.size(), userId);
+        schedule(job);
+        return job;
+    }
+
+    /**
+     * Create a job for uploaded recordings. Files are stored in S3 first so the job
+     * can be resumed from its manifest after a restart.
+     */
+    public BatchJob submitUploads(String userId, String sessionId, List<MultipartFile> files) {
+        String uploadId = UUID.randomUUID().toString();
+        List<String> s3Keys = new ArrayList<>();
+        for (MultipartFile file : files) {
+            try {
+                s3Keys.add(s3Service.uploadAudio(userId, uploadId, file.getBytes()));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read uploaded file " + file.getOriginalFilename(), e);
+            }
+        }
+        return submit(userId, sessionId, s3Keys);
+    }
+
+    /**
+     * @param userId User ID
+     * @param s3Key Object key from a batch manifest
+     * @return Whether the key names a recording under the user's {@code input/{userId}/} prefix
+     */
+    public boolean ownsRecording(String userId, String s3Key) {
+        String prefix = INPUT_PREFIX + userId + "/";
+        if (s3Key == null || !s3Key.startsWith(prefix) || s3Key.length() == prefix.length()) {
+            return false;
+        }
+        // Relative segments could be resolved by an intermediary and escape the prefix
+        return Arrays.stream(s3Key.split("/")).noneMatch(segment -> segment.equals(".") || segment.equals(".."));
+    }
+
+    /**
+     * @param jobId Job ID
+     * @param userId The user asking; jobs of other users are reported as missing
+     * @return A consistent snapshot of the job's progress, if the job exists and belongs to the user
+     */
+    public Optional<BatchJobStatusDTO> getJobStatus(String jobId, String userId) {
+        BatchJob job = jobs.get(jobId);
+        if (job == null) {
+            return loadArchivedJob(jobId)
+                    .filter(archived -> archived.getUserId().equals(userId))
+                    .map(BatchJobStatusDTO::of);
+        }
+        synchronized (job) {
+            return job.getUserId().equals(userId) ? Optional.of(BatchJobStatusDTO.of(job)) : Optional.empty();
+        }
+    }
+
+    /**
+     * Delete archived jobs that finished longer ago than the retention period
+     */
+    @Scheduled(fixedDelayString = "${voice-assistant.batch.retention-check-interval-ms:3600000}")
+    public void purgeArchivedJobs() {
+        Path dir = Paths.get(checkpointDir, ARCHIVE_DIR);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(path -> path.toString().endsWith(".json")).forEach(path -> {
+                try {
+                    if (Files.getLastModifiedTime(path).toMillis() < cutoff) {
+                        Files.delete(path);
+                        log.debug("Purged archived batch job {}", path.getFileName());
+                    }
+                } catch (IOException e) {
+                    log.warn("Error purging archived batch job {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.error("Error listing archived batch jobs in {}: {}", dir, e.getMessage(), e);
+        }
+    }
+
+    private void schedule(BatchJob job) {
+        for (BatchJobItem item : job.getItems()) {
+            if ("PENDING".equals(item.getStatus()) || "IN_FLIGHT".equals(item.getStatus())) {
+                workers.submit(() -> processItem(job, item));
+            }
+        }
+    }
+
+    private void processItem(BatchJob job, BatchJobItem item) {
+        try {
+            processingBudget.acquireBackground();
+        } catch (InterruptedException e) {
+            // Left PENDING in the checkpoint, picked up again on the next start
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // Persist a stable request ID before the non-idempotent call. If the backend dies
+        // mid-item, the retry reuses it and the voice Lambda returns the stored turn
+        // instead of transcribing and calling Bedrock again.
+        String requestId;
+        synchronized (job) {
+            if (item.getRequestId() == null) {
+                item.setRequestId(UUID.randomUUID().toString());
+            }
+            item.setStatus("IN_FLIGHT");
+            checkpoint(job);
+            requestId = item.getRequestId();
+        }
+
+        String error = null;
+        try {
+            Map<String, Object> body = new HashMap<>();
+            body.put("requestId", requestId);
+            // The Lambda reads the recording itself; inlined audio would hit the 6 MB invoke payload limit
+            body.put("s3Key", item.getS3Key());
+            body.put("userId", job.getUserId());
+            body.put("sessionId", job.getSessionId());
+            body.put("conversationId", item.getConversationId());
+
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("httpMethod", "POST");
+            payload.put("path", "/voice/process");
+            payload.put("body", body);
+
+            Map<String, Object> response = lambdaService.invokeVoiceProcessingBatch(payload);
+            int statusCode = (Integer) response.get("statusCode");
+            Map<?, ?> responseBody = objectMapper.readValue((String) response.get("body"), Map.class);
+
+            if (statusCode >= 200 && statusCode < 300) {
+                if (responseBody.get("transcript") instanceof String transcript) {
+                    transcriptIndexService.indexTurn(Conversation.builder()
+                            .conversationId(item.getConversationId())
+                            .timestamp(responseBody.get("timestamp") instanceof Number timestamp
+                                    ? timestamp.longValue() : System.currentTimeMillis())
+                            .userId(job.getUserId())
+                            .sessionId(job.getSessionId())
+                            .requestId(requestId)
+                            .type("INPUT")
+                            .status("TRANSCRIBED")
+                            .audioS3Path(item.getS3Key())
+                            .transcript(transcript)
+                            .build());
+                }
+            } else {
+                error = responseBody.containsKey("error") ? String.valueOf(responseBody.get("error")) : "Unknown error";
+            }
+        } catch (Exception e) {
+            log.error("Error processing batch item {} of job {}: {}", item.getIndex(), job.getJobId(), e.getMessage(), e);
+            error = e.getMessage();
+        } finally {
+            processingBudget.release();
+        }
+
+        completeItem(job, item, requestId, error);
+    }
+
+    private void completeItem(BatchJob job, BatchJobItem item, String requestId, String error) {
+        BatchJobStatusDTO progress;
+        synchronized (job) {
+            item.setRequestId(requestId);
+            item.setError(error);
+            item.setStatus(error == null ? "COMPLETED" : "FAILED");
+            job.setUpdatedAt(Instant.now().toEpochMilli());
+            checkpoint(job);
+            if (job.countItems("PENDING") == 0 && job.countItems("IN_FLIGHT") == 0) {
+                job.setStatus("COMPLETED");
+                archive(job);
+                jobs.remove(job.getJobId());
+                log.info("Batch job {} completed", job.getJobId());
+            }
+            progress = BatchJobStatusDTO.of(job);
+        }
+
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", "BATCH_PROGRESS");
+        event.put("jobId", progress.getJobId());
+        event.put("status", progress.getStatus());
+        event.put("total", progress.getTotal());
+        event.put("completed", progress.getCompleted());
+        event.put("failed", progress.getFailed());
+        event.put("timestamp", System.currentTimeMillis());
+        webSocketService.sendToUser(job.getUserId(), event);
+    }
+
+    /**
+     * Write the job to its checkpoint file via a temp file and atomic move.
+     * Callers must hold the job's monitor once the job has been scheduled.
+     */
+    private void checkpoint(BatchJob job) {
+        Path path = Paths.get(checkpointDir, job.getJobId() + ".json").toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), job.getJobId(), ".tmp");
+            objectMapper.writeValue(temp.toFile(), job);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Error writing checkpoint for batch job {}: {}", job.getJobId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write the finished job to the archive directory and remove its running checkpoint
+     */
+    private void archive(BatchJob job) {
+        Path running = Paths.get(checkpointDir, job.getJobId() + ".json").toAbsolutePath();
+        Path archived = Paths.get(checkpointDir, ARCHIVE_DIR, job.getJobId() + ".json").toAbsolutePath();
+        try {
+            Files.createDirectories(archived.getParent());
+            Path temp = Files.createTempFile(archived.getParent(), job.getJobId(), ".tmp");
+            objectMapper.writeValue(temp.toFile(), job);
+            Files.move(temp, archived, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(running);
+        } catch (IOException e) {
+            log.error("Error archiving batch job {}: {}", job.getJobId(), e.getMessage(), e);
+        }
+    }
+
+    private Optional<BatchJob> loadArchivedJob(String jobId) {
+        try {
+            // Job IDs are UUIDs; anything else must not be turned into a path
+            UUID.fromString(jobId);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        Path path = Paths.get(checkpointDir, ARCHIVE_DIR, jobId + ".json");
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(path.toFile(), BatchJob.class));
+        } catch (IOException e) {
+            log.error("Error reading archived batch job {}: {}", path, e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    private void resumeJobs() {
+        Path dir = Paths.get(checkpointDir);
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(path -> path.toString().endsWith(".json")).forEach(path -> {
+                try {
+                    BatchJob job = objectMapper.readValue(path.toFile(), BatchJob.class);
+                    if ("RUNNING".equals(job.getStatus())) {
+                        jobs.put(job.getJobId(), job);
+                        log.info("Resuming batch job {} with {} pending recordings",
+                                job.getJobId(), job.countItems("PENDING"));
+                        schedule(job);
+                    } else {
+                        archive(job);
+                    }
+                } catch (IOException e) {
+                    log.error("Error reading batch job checkpoint {}: {}", path, e.getMessage(), e);
+                }
+            });
+        } catch (IOException e) {
+            log.error("Error listing batch job checkpoints in {}: {}", dir, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.voiceassistant.service;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes WebSocket events as CBOR with abbreviated field names for clients that
+ * subscribe to the binary variant of a topic. Audio URLs pointing into the audio
+ * bucket are reduced to their object key.
+ *
+ * Field map: t=type, r=requestId, ts=timestamp, o=offset, d=delta, q=seq, x=response,
+ * a=audioUrl (full URL), k=audio object key, m=message. Unknown fields keep their name.
+ */
+@Component
+public class CompactEventEncoder {
+
+    private static final Map<String, String> FIELD_NAMES = Map.of(
+        "type", "t",
+        "requestId", "r",
+        "timestamp", "ts",
+        "offset", "o",
+        "delta", "d",
+        "seq", "q",
+        "response", "x",
+        "audioUrl", "a",
+        "message", "m"
+    );
+
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final String audioUrlPrefix;
+
+    public CompactEventEncoder(@Value("${aws.s3.audio-bucket:voice-assistant-audio-storage}") String audioBucket) {
+        this.audioUrlPrefix = String.format("https://%s.s3.amazonaws.com/", audioBucket);
+    }
+
+    /**
+     * @param event The event as sent to JSON subscribers
+     * @return CBOR bytes of the compact form
+     */
+    public byte[] encode(Map<String, Object> event) {
+        Map<String, Object> compact = new LinkedHashMap<>();
+        event.forEach((name, value) -> {
+            if ("audioUrl".equals(name) && value instanceof String url && url.startsWith(audioUrlPrefix)) {
+                compact.put("k", url.substring(audioUrlPrefix.length()));
+            } else {
+                compact.put(FIELD_NAMES.getOrDefault(name, name), value);
+            }
+        });
+        try {
+            return cborMapper.writeValueAsBytes(compact);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode WebSocket event as CBOR", e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.voiceassistant.service;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window of recent invocation latencies for a single Lambda function.
+ * Percentiles over the window drive the adaptive timeout and the hedge delay.
+ */
+public class LambdaLatencyTracker {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    public LambdaLatencyTracker(int windowSize) {
+        this.samples = new long[Math.max(1, windowSize)];
+    }
+
+    /**
+     * Record the latency of a completed invocation
+     *
+     * @param latencyMillis Observed latency in milliseconds
+     */
+    public synchronized void record(long latencyMillis) {
+        samples[next] = latencyMillis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    /**
+     * @return Number of samples currently held in the window
+     */
+    public synchronized int sampleCount() {
+        return count;
+    }
+
+    /**
+     * Compute a latency percentile over the current window
+     *
+     * @param percentile Percentile in the range (0, 1], e.g. 0.95
+     * @return Latency in milliseconds, or -1 if no samples have been recorded
+     */
+    public synchronized long percentile(double percentile) {
+        if (count == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.min(count - 1, Math.max(0, index))];
+    }
+}
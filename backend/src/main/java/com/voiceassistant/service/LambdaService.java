@@ -1,19 +1,41 @@
 package com.voiceassistant.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
 import software.amazon.awssdk.services.lambda.LambdaClient;
 import software.amazon.awssdk.services.lambda.model.InvokeRequest;
 import software.amazon.awssdk.services.lambda.model.InvokeResponse;
 import software.amazon.awssdk.services.lambda.model.InvocationType;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
@@ -22,75 +44,375 @@ public class LambdaService {
 
     private final LambdaClient lambdaClient;
     private final ObjectMapper objectMapper;
-    
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, FunctionPolicy> policies = new ConcurrentHashMap<>();
+    private Semaphore hedgePermits;
+    private final ExecutorService invocationExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "lambda-invoke");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     @Value("${aws.lambda.voice-processing-function:VoiceProcessingLambda}")
     private String voiceProcessingFunction;
-    
+
     @Value("${aws.lambda.bedrock-integration-function:BedrockIntegrationLambda}")
     private String bedrockIntegrationFunction;
-    
+
+    @Value("${aws.lambda.resilience.latency-window:256}")
+    private int latencyWindow;
+
+    @Value("${aws.lambda.resilience.min-samples:20}")
+    private int minSamples;
+
+    @Value("${aws.lambda.resilience.timeout-percentile:0.99}")
+    private double timeoutPercentile;
+
+    @Value("${aws.lambda.resilience.timeout-multiplier:2.0}")
+    private double timeoutMultiplier;
+
+    @Value("${aws.lambda.resilience.timeout-min-ms:1000}")
+    private long timeoutMinMillis;
+
+    @Value("${aws.lambda.resilience.timeout-max-ms:15000}")
+    private long timeoutMaxMillis;
+
+    @Value("${aws.lambda.resilience.hedging-enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${aws.lambda.resilience.hedge-percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${aws.lambda.resilience.max-outstanding-hedges:8}")
+    private int maxOutstandingHedges;
+
+    @Value("${aws.lambda.resilience.breaker-failure-threshold:5}")
+    private int breakerFailureThreshold;
+
+    @Value("${aws.lambda.resilience.breaker-open-ms:30000}")
+    private long breakerOpenMillis;
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
     /**
      * Invoke the voice processing Lambda function
-     * 
+     *
      * @param payload The JSON payload to send to the Lambda function
      * @return The response from the Lambda function
      */
     public Map<String, Object> invokeVoiceProcessing(Object payload) {
         return invokeLambda(voiceProcessingFunction, payload, InvocationType.REQUEST_RESPONSE);
     }
-    
+
+    /**
+     * Invoke the voice processing Lambda function for a batch item. Batch calls have their own
+     * latency window and circuit breaker, so a long-running job neither stretches the adaptive
+     * timeout of live requests nor opens their circuit, and they are never hedged.
+     *
+     * @param payload The JSON payload to send to the Lambda function
+     * @return The response from the Lambda function
+     */
+    public Map<String, Object> invokeVoiceProcessingBatch(Object payload) {
+        return invokeLambda(policyFor(voiceProcessingFunction, Workload.BATCH), payload, InvocationType.REQUEST_RESPONSE);
+    }
+
     /**
      * Invoke the Bedrock integration Lambda function asynchronously
-     * 
+     *
      * @param payload The JSON payload to send to the Lambda function
      */
     public void invokeBedrockIntegrationAsync(Object payload) {
         invokeLambda(bedrockIntegrationFunction, payload, InvocationType.EVENT);
     }
-    
+
     /**
-     * Generic method to invoke a Lambda function
-     * 
+     * Generic method to invoke a Lambda function.
+     * Calls are bounded by an adaptive timeout derived from observed latency, guarded by a
+     * per-function circuit breaker and, when enabled, hedged with a second synchronous call.
+     * They share the live policy of the function; batch work uses {@link #invokeVoiceProcessingBatch}.
+     *
      * @param functionName The name of the Lambda function
      * @param payload The JSON payload to send to the Lambda function
      * @param invocationType The invocation type (RequestResponse or Event)
      * @return The response from the Lambda function, or null if async invocation
      */
-    @SuppressWarnings("unchecked")
     public Map<String, Object> invokeLambda(String functionName, Object payload, InvocationType invocationType) {
+        return invokeLambda(policyFor(functionName, Workload.LIVE), payload, invocationType);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> invokeLambda(FunctionPolicy policy, Object payload, InvocationType invocationType) {
+        String functionName = policy.functionName;
+        if (!policy.breaker.tryAcquire()) {
+            policy.rejected.increment();
+            log.warn("Circuit open for Lambda function {}, failing fast", functionName);
+            throw new RuntimeException("Lambda function " + functionName + " is temporarily unavailable");
+        }
+
+        long start = System.nanoTime();
         try {
             // Convert payload to JSON
             String payloadJson = objectMapper.writeValueAsString(payload);
             SdkBytes payloadBytes = SdkBytes.fromUtf8String(payloadJson);
-            
-            // Build the invoke request
+
+            // Build the invoke request, bounded by the adaptive timeout
+            Duration timeout = Duration.ofMillis(policy.timeoutMillis());
             InvokeRequest request = InvokeRequest.builder()
                     .functionName(functionName)
                     .payload(payloadBytes)
                     .invocationType(invocationType)
+                    .overrideConfiguration(config -> config.apiCallTimeout(timeout))
                     .build();
-            
+
             // Invoke the Lambda function
-            InvokeResponse response = lambdaClient.invoke(request);
-            
+            InvokeResponse response = invocationType == InvocationType.REQUEST_RESPONSE
+                    ? invokeHedged(policy, request, timeout)
+                    : lambdaClient.invoke(request);
+
             // If async invocation, return null
             if (invocationType == InvocationType.EVENT) {
+                policy.recordSuccess(System.nanoTime() - start);
                 return null;
             }
-            
+
             // Check for errors
             if (response.functionError() != null) {
                 String errorMessage = new String(response.payload().asByteArray(), StandardCharsets.UTF_8);
                 log.error("Lambda function {} returned an error: {}", functionName, errorMessage);
                 throw new RuntimeException("Lambda invocation error: " + errorMessage);
             }
-            
+
+            policy.recordSuccess(System.nanoTime() - start);
+
             // Parse and return the response
             String responseJson = new String(response.payload().asByteArray(), StandardCharsets.UTF_8);
             return objectMapper.readValue(responseJson, Map.class);
         } catch (Exception e) {
+            policy.recordFailure(System.nanoTime() - start, isTimeout(e));
             log.error("Error invoking Lambda function {}: {}", functionName, e.getMessage(), e);
             throw new RuntimeException("Failed to invoke Lambda function: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Issue a synchronous invocation and, if it has not completed by the function's p95
+     * latency, race a second identical invocation against it. The first success wins.
+     * Only used once enough latency samples exist to place the hedge meaningfully.
+     * <p>
+     * The losing call cannot be aborted: interrupting its thread does not unblock a socket
+     * read, so it keeps a pooled connection until the SDK call timeout and the Lambda
+     * execution runs to completion. Hedges are therefore bounded by a global permit count
+     * that is only returned once both calls of a pair have finished.
+     */
+    private InvokeResponse invokeHedged(FunctionPolicy policy, InvokeRequest request, Duration timeout) throws Exception {
+        long hedgeDelay = policy.hedgeDelayMillis();
+        if (!hedgingEnabled || policy.workload != Workload.LIVE || hedgeDelay < 0) {
+            return lambdaClient.invoke(request);
+        }
+
+        CompletableFuture<InvokeResponse> result = new CompletableFuture<>();
+        HedgedCall call = new HedgedCall();
+        Future<?> primary = submit(request, result, call, null);
+        Future<?> hedge = null;
+
+        try {
+            try {
+                return result.get(hedgeDelay, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (!call.startHedge()) {
+                    policy.hedgesSkipped.increment();
+                    return result.get(Math.max(1, timeout.toMillis() - hedgeDelay), TimeUnit.MILLISECONDS);
+                }
+                policy.hedgesLaunched.increment();
+                log.debug("Hedging Lambda function {} after {} ms", request.functionName(), hedgeDelay);
+                hedge = submit(request, result, call, policy.hedgesWon);
+                return result.get(Math.max(1, timeout.toMillis() - hedgeDelay), TimeUnit.MILLISECONDS);
+            }
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } finally {
+            // Only helps while a call is still waiting for a pooled connection
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private Future<?> submit(InvokeRequest request, CompletableFuture<InvokeResponse> result,
+                             HedgedCall call, Counter winCounter) {
+        return invocationExecutor.submit(() -> {
+            try {
+                InvokeResponse response = lambdaClient.invoke(request);
+                if (result.complete(response) && winCounter != null) {
+                    winCounter.increment();
+                }
+            } catch (Exception e) {
+                if (call.failed.decrementAndGet() == 0) {
+                    result.completeExceptionally(e);
+                }
+            } finally {
+                call.finished();
+            }
+        });
+    }
+
+    /**
+     * Bookkeeping for one primary call and its optional hedge
+     */
+    private class HedgedCall {
+        // Calls that have not failed yet; the result fails once this reaches zero
+        private final AtomicInteger failed = new AtomicInteger(1);
+        // Calls still holding a thread and a connection
+        private final AtomicInteger running = new AtomicInteger(1);
+        private final AtomicBoolean holdsPermit = new AtomicBoolean();
+
+        boolean startHedge() {
+            // Count the hedge as running before taking the permit so the primary finishing
+            // concurrently cannot release it early
+            running.incrementAndGet();
+            if (!hedgePermits.tryAcquire()) {
+                finished();
+                return false;
+            }
+            holdsPermit.set(true);
+            failed.incrementAndGet();
+            return true;
+        }
+
+        void finished() {
+            if (running.decrementAndGet() == 0 && holdsPermit.compareAndSet(true, false)) {
+                hedgePermits.release();
+            }
+        }
+    }
+
+    private Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof Exception ? (Exception) cause : e;
+    }
+
+    private boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof ApiCallTimeoutException
+                    || cause instanceof ApiCallAttemptTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private FunctionPolicy policyFor(String functionName, Workload workload) {
+        return policies.computeIfAbsent(functionName + "#" + workload,
+                key -> new FunctionPolicy(functionName, workload));
+    }
+
+    @PostConstruct
+    public void init() {
+        hedgePermits = new Semaphore(Math.max(0, maxOutstandingHedges));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        invocationExecutor.shutdownNow();
+    }
+
+    /**
+     * Callers whose latency must not be mixed: live requests from users waiting on an answer,
+     * and background batch jobs
+     */
+    private enum Workload {
+        LIVE, BATCH;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Latency window, circuit breaker and meters for a single Lambda function and workload
+     */
+    private class FunctionPolicy {
+
+        private final String functionName;
+        private final Workload workload;
+
+        private final LambdaLatencyTracker latency = new LambdaLatencyTracker(latencyWindow);
+        private final LambdaCircuitBreaker breaker = new LambdaCircuitBreaker(breakerFailureThreshold, breakerOpenMillis);
+        private final Timer successTimer;
+        private final Timer failureTimer;
+        private final Counter hedgesLaunched;
+        private final Counter hedgesWon;
+        private final Counter hedgesSkipped;
+        private final Counter rejected;
+
+        FunctionPolicy(String functionName, Workload workload) {
+            this.functionName = functionName;
+            this.workload = workload;
+            Tags tags = Tags.of("function", functionName, "workload", workload.tag());
+            successTimer = Timer.builder("lambda.invocation")
+                    .tags(tags).tag("outcome", "success")
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            failureTimer = Timer.builder("lambda.invocation")
+                    .tags(tags).tag("outcome", "failure")
+                    .register(meterRegistry);
+            hedgesLaunched = Counter.builder("lambda.hedge.launched")
+                    .tags(tags).register(meterRegistry);
+            hedgesWon = Counter.builder("lambda.hedge.won")
+                    .tags(tags).register(meterRegistry);
+            hedgesSkipped = Counter.builder("lambda.hedge.skipped")
+                    .description("Hedges not launched because too many were outstanding")
+                    .tags(tags).register(meterRegistry);
+            rejected = Counter.builder("lambda.circuit.rejected")
+                    .tags(tags).register(meterRegistry);
+            Gauge.builder("lambda.circuit.state", breaker, b -> b.getState().ordinal())
+                    .description("0 = closed, 1 = open, 2 = half-open")
+                    .tags(tags).register(meterRegistry);
+            Gauge.builder("lambda.timeout.adaptive", this, FunctionPolicy::timeoutMillis)
+                    .baseUnit("milliseconds")
+                    .tags(tags).register(meterRegistry);
+        }
+
+        /**
+         * Adaptive timeout: a multiple of the observed tail latency, clamped to the configured
+         * bounds. Falls back to the maximum until the window holds enough samples.
+         */
+        long timeoutMillis() {
+            if (latency.sampleCount() < minSamples) {
+                return timeoutMaxMillis;
+            }
+            long adaptive = (long) (latency.percentile(timeoutPercentile) * timeoutMultiplier);
+            return Math.min(timeoutMaxMillis, Math.max(timeoutMinMillis, adaptive));
+        }
+
+        long hedgeDelayMillis() {
+            return latency.sampleCount() < minSamples ? -1 : latency.percentile(hedgePercentile);
+        }
+
+        void recordSuccess(long elapsedNanos) {
+            latency.record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            successTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            breaker.recordSuccess();
+        }
+
+        /**
+         * Timed-out calls also enter the latency window at the time they were cut off, so a
+         * function that slows down gradually raises its own adaptive timeout. They still count
+         * as breaker failures: a function that stops answering altogether opens the circuit.
+         */
+        void recordFailure(long elapsedNanos, boolean timedOut) {
+            if (timedOut) {
+                latency.record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            }
+            failureTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            breaker.recordFailure();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.voiceassistant.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency budget for voice processing shared by live requests and batch jobs.
+ * Live requests may use every permit; batch work only runs while no live request is
+ * waiting and a reserve of permits is left free for live traffic.
+ */
+@Component
+public class ProcessingBudget {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private int inUse;
+    private int interactiveWaiting;
+
+    @Value("${voice-assistant.processing.max-concurrent:64}")
+    private int maxConcurrent;
+
+    @Value("${voice-assistant.processing.interactive-reserve:16}")
+    private int interactiveReserve;
+
+    /**
+     * Acquire a permit for a live request
+     *
+     * @param timeoutMillis Maximum time to wait for a permit
+     * @return true if a permit was acquired, false on timeout
+     */
+    public boolean acquireInteractive(long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            interactiveWaiting++;
+            try {
+                while (inUse >= maxConcurrent) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inUse++;
+                return true;
+            } finally {
+                interactiveWaiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquire a permit for background work, waiting until live traffic leaves room
+     */
+    public void acquireBackground() throws InterruptedException {
+        lock.lock();
+        try {
+            while (interactiveWaiting > 0 || inUse >= Math.max(1, maxConcurrent - interactiveReserve)) {
+                released.await();
+            }
+            inUse++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inUse--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -32,13 +32,23 @@ public class S3Service {
      * @return S3 object key
      */
     public String uploadAudio(String userId, String conversationId, String audioData) {
+        // Decode base64 audio data
+        return uploadAudio(userId, conversationId, Base64.getDecoder().decode(audioData));
+    }
+    
+    /**
+     * Upload raw audio bytes to S3 bucket
+     *
+     * @param userId User ID
+     * @param conversationId Conversation ID
+     * @param decodedAudio WAV audio bytes
+     * @return S3 object key
+     */
+    public String uploadAudio(String userId, String conversationId, byte[] decodedAudio) {
         try {
             String requestId = UUID.randomUUID().toString();
             String key = String.format("input/%s/%s/%s.wav", userId, conversationId, requestId);
             
-            // Decode base64 audio data
-            byte[] decodedAudio = Base64.getDecoder().decode(audioData);
-            
             // Upload to S3
             PutObjectRequest putObjectRequest = PutObjectRequest.builder()
                     .bucket(audioBucket)
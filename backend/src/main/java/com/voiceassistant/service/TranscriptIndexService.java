@@ -0,0 +1,562 @@
+package com.voiceassistant.service;
+
+import com.voiceassistant.dto.TranscriptSearchHitDTO;
+import com.voiceassistant.model.Conversation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded inverted index over conversation transcripts and responses.
+ * The index is partitioned by user and periodically snapshotted to local disk so
+ * restarts do not need a rebuild. User turns are indexed as this backend receives
+ * them; assistant responses are written to DynamoDB by the Bedrock Lambda and are
+ * picked up by polling recently active conversations. Conversations older than the
+ * first snapshot are only searchable after a one-off backfill scan of the table.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TranscriptIndexService {
+
+    private static final int SNAPSHOT_MAGIC = 0x56414958; // "VAIX"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNIPPET_RADIUS = 60;
+
+    private final DynamoDbClient dynamoDbClient;
+
+    private final Map<String, UserPartition> partitions = new ConcurrentHashMap<>();
+    private final Map<String, WatchedConversation> activeConversations = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile boolean snapshotLoaded;
+    private final ScheduledExecutorService syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transcript-index-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${aws.dynamodb.conversation-table:ConversationTable}")
+    private String conversationTable;
+
+    @Value("${voice-assistant.search.snapshot-path:data/transcript-index.bin}")
+    private String snapshotPath;
+
+    @Value("${voice-assistant.search.max-results:50}")
+    private int maxResults;
+
+    @Value("${voice-assistant.search.max-turns-per-user:20000}")
+    private int maxTurnsPerUser;
+
+    @Value("${voice-assistant.search.active-conversation-ttl-ms:600000}")
+    private long activeConversationTtlMillis;
+
+    @Value("${voice-assistant.search.backfill-on-start:false}")
+    private boolean backfillOnStart;
+
+    @Value("${voice-assistant.search.sync-interval-ms:5000}")
+    private long syncIntervalMillis;
+
+    @Value("${voice-assistant.search.sync-max-conversations:200}")
+    private int maxSyncsPerPass;
+
+    /**
+     * Add a conversation turn to its user's partition and follow the conversation so the
+     * assistant's response is indexed once the Bedrock Lambda has written it.
+     * Turns already indexed are ignored.
+     *
+     * @param conversation The conversation turn as written to DynamoDB
+     */
+    public void indexTurn(Conversation conversation) {
+        addTurn(conversation);
+        if (conversation.getUserId() != null && conversation.getConversationId() != null) {
+            activeConversations.compute(conversation.getConversationId(), (id, watched) -> {
+                WatchedConversation updated = watched != null ? watched
+                        : new WatchedConversation(conversation.getUserId(), conversation.getTimestamp() - 1);
+                updated.lastActivity = System.currentTimeMillis();
+                return updated;
+            });
+        }
+    }
+
+    private void addTurn(Conversation conversation) {
+        String text = "INPUT".equals(conversation.getType()) ? conversation.getTranscript() : conversation.getText();
+        if (conversation.getUserId() == null || text == null || text.isBlank()) {
+            return;
+        }
+        UserPartition partition = partitions.computeIfAbsent(conversation.getUserId(), id -> new UserPartition());
+        IndexedTurn turn = new IndexedTurn(conversation.getConversationId(), conversation.getTimestamp(),
+                conversation.getRequestId(), conversation.getType(), text);
+        if (partition.add(turn, maxTurnsPerUser)) {
+            dirty.set(true);
+        }
+    }
+
+    /**
+     * Read turns written to recently active conversations since the last poll, which is how
+     * responses stored by the Bedrock Lambda reach the index. Conversations idle for longer
+     * than the configured TTL are no longer followed. Each pass queries at most a fixed
+     * number of conversations, least recently synced first, on the index's own thread so a
+     * slow pass never delays other scheduled work.
+     */
+    void syncActiveConversations() {
+        long now = System.currentTimeMillis();
+        activeConversations.values().removeIf(watched -> now - watched.lastActivity > activeConversationTtlMillis);
+
+        List<Map.Entry<String, WatchedConversation>> due = new ArrayList<>(activeConversations.entrySet());
+        due.sort(Comparator.comparingLong(entry -> entry.getValue().lastSynced));
+        for (Map.Entry<String, WatchedConversation> entry : due.subList(0, Math.min(due.size(), maxSyncsPerPass))) {
+            WatchedConversation watched = entry.getValue();
+            watched.lastSynced = now;
+            try {
+                syncConversation(entry.getKey(), watched);
+            } catch (Exception e) {
+                log.warn("Error syncing conversation {} into the transcript index: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        if (due.size() > maxSyncsPerPass) {
+            log.debug("Transcript index sync deferred {} of {} active conversations",
+                    due.size() - maxSyncsPerPass, due.size());
+        }
+    }
+
+    private void syncConversation(String conversationId, WatchedConversation watched) {
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            QueryResponse response = dynamoDbClient.query(QueryRequest.builder()
+                    .tableName(conversationTable)
+                    .keyConditionExpression("conversationId = :cid AND #ts > :since")
+                    .expressionAttributeNames(Map.of("#ts", "timestamp"))
+                    .expressionAttributeValues(Map.of(
+                            ":cid", AttributeValue.fromS(conversationId),
+                            ":since", AttributeValue.fromN(String.valueOf(watched.highWater))))
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build());
+            for (Map<String, AttributeValue> item : response.items()) {
+                Conversation conversation = toConversation(item);
+                if (conversation.getUserId() == null) {
+                    conversation.setUserId(watched.userId);
+                }
+                addTurn(conversation);
+                watched.highWater = Math.max(watched.highWater, conversation.getTimestamp());
+            }
+            exclusiveStartKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey() : null;
+        } while (exclusiveStartKey != null);
+    }
+
+    /**
+     * One-off bootstrap for conversations that predate the index. Runs only when enabled and
+     * no snapshot exists, and scans the whole conversation table in pages.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!backfillOnStart || snapshotLoaded) {
+            return;
+        }
+        log.info("Backfilling transcript index from {}", conversationTable);
+        long count = 0;
+        try {
+            Map<String, AttributeValue> exclusiveStartKey = null;
+            do {
+                ScanResponse response = dynamoDbClient.scan(ScanRequest.builder()
+                        .tableName(conversationTable)
+                        .exclusiveStartKey(exclusiveStartKey)
+                        .build());
+                for (Map<String, AttributeValue> item : response.items()) {
+                    addTurn(toConversation(item));
+                    count++;
+                }
+                exclusiveStartKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                        ? response.lastEvaluatedKey() : null;
+            } while (exclusiveStartKey != null);
+            // Scan order is arbitrary; restore newest-last document order for search
+            partitions.values().forEach(partition -> partition.compact(maxTurnsPerUser));
+            dirty.set(true);
+            log.info("Backfilled transcript index with {} conversation items", count);
+        } catch (Exception e) {
+            log.error("Error backfilling transcript index after {} items: {}", count, e.getMessage(), e);
+        }
+    }
+
+    private static Conversation toConversation(Map<String, AttributeValue> item) {
+        return Conversation.builder()
+                .conversationId(stringValue(item, "conversationId"))
+                .timestamp(item.containsKey("timestamp") ? Long.parseLong(item.get("timestamp").n()) : 0L)
+                .userId(stringValue(item, "userId"))
+                .requestId(stringValue(item, "requestId"))
+                .type(stringValue(item, "type"))
+                .transcript(stringValue(item, "transcript"))
+                .text(stringValue(item, "text"))
+                .build();
+    }
+
+    private static String stringValue(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item.get(name);
+        return value != null ? value.s() : null;
+    }
+
+    /**
+     * Find turns of a user containing every term of the query, most recent first
+     *
+     * @param userId The user whose conversations are searched
+     * @param query Free-text query
+     * @param limit Maximum number of hits to return
+     * @return Matching turns with a snippet around the first match
+     */
+    public List<TranscriptSearchHitDTO> search(String userId, String query, int limit) {
+        UserPartition partition = partitions.get(userId);
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (partition == null || terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return partition.search(terms, Math.min(Math.max(1, limit), maxResults));
+    }
+
+    @PostConstruct
+    public void startSync() {
+        syncExecutor.scheduleWithFixedDelay(this::syncActiveConversations,
+                syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopSync() {
+        syncExecutor.shutdownNow();
+    }
+
+    @PostConstruct
+    public void loadSnapshot() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring transcript index snapshot with unknown format: {}", path);
+                return;
+            }
+            int partitionCount = in.readInt();
+            for (int i = 0; i < partitionCount; i++) {
+                String userId = in.readUTF();
+                partitions.put(userId, UserPartition.read(in));
+            }
+            snapshotLoaded = true;
+            log.info("Loaded transcript index snapshot with {} user partitions from {}", partitionCount, path);
+        } catch (IOException e) {
+            log.error("Error loading transcript index snapshot {}: {}", path, e.getMessage(), e);
+            partitions.clear();
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${voice-assistant.search.snapshot-interval-ms:60000}")
+    public void writeSnapshot() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        Path path = Paths.get(snapshotPath).toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), "transcript-index", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                Map<String, UserPartition> snapshot = new HashMap<>(partitions);
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, UserPartition> entry : snapshot.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    entry.getValue().write(out);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote transcript index snapshot to {}", path);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.error("Error writing transcript index snapshot {}: {}", path, e.getMessage(), e);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static String snippet(String text, String term) {
+        int match = text.toLowerCase(Locale.ROOT).indexOf(term);
+        if (match < 0 || text.length() <= SNIPPET_RADIUS * 2) {
+            return text.length() <= SNIPPET_RADIUS * 2 ? text : text.substring(0, SNIPPET_RADIUS * 2) + "...";
+        }
+        int from = Math.max(0, match - SNIPPET_RADIUS);
+        int to = Math.min(text.length(), match + term.length() + SNIPPET_RADIUS);
+        return (from > 0 ? "..." : "") + text.substring(from, to) + (to < text.length() ? "..." : "");
+    }
+
+    private static final class IndexedTurn {
+        private final String conversationId;
+        private final long timestamp;
+        private final String requestId;
+        private final String type;
+        private final String text;
+
+        private IndexedTurn(String conversationId, long timestamp, String requestId, String type, String text) {
+            this.conversationId = conversationId;
+            this.timestamp = timestamp;
+            this.requestId = requestId;
+            this.type = type;
+            this.text = text;
+        }
+
+        private String key() {
+            return conversationId + "#" + (requestId != null ? requestId : String.valueOf(timestamp)) + "#" + type;
+        }
+    }
+
+    /**
+     * Growable, append-only list of ascending document ids
+     */
+    private static final class PostingList {
+        private int[] docIds = new int[4];
+        private int size;
+
+        private void add(int docId) {
+            if (size > 0 && docIds[size - 1] == docId) {
+                return;
+            }
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+            }
+            docIds[size++] = docId;
+        }
+
+        private boolean contains(int docId) {
+            return Arrays.binarySearch(docIds, 0, size, docId) >= 0;
+        }
+    }
+
+    /**
+     * Conversation followed by the sync poller until it has been idle for the TTL
+     */
+    private static final class WatchedConversation {
+        private final String userId;
+        private volatile long highWater;
+        private volatile long lastActivity;
+        private volatile long lastSynced;
+
+        private WatchedConversation(String userId, long highWater) {
+            this.userId = userId;
+            this.highWater = highWater;
+        }
+    }
+
+    /**
+     * Documents and term dictionary of a single user. Document ids are positions in
+     * {@code turns}, so every posting list stays sorted without extra work.
+     */
+    private static final class UserPartition {
+        private final List<IndexedTurn> turns = new ArrayList<>();
+        private final Set<String> keys = new HashSet<>();
+        private final Map<String, PostingList> postings = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private boolean add(IndexedTurn turn, int maxTurns) {
+            lock.writeLock().lock();
+            try {
+                if (keys.contains(turn.key())) {
+                    return false;
+                }
+                if (turns.size() >= maxTurns) {
+                    // Drop the oldest quarter at once so the rebuild cost is amortised
+                    retainNewest(maxTurns - Math.max(1, maxTurns / 4));
+                }
+                keys.add(turn.key());
+                append(turn);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Re-order documents by timestamp and keep at most {@code maxTurns} of the newest
+         */
+        private void compact(int maxTurns) {
+            lock.writeLock().lock();
+            try {
+                retainNewest(maxTurns);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private void retainNewest(int count) {
+            List<IndexedTurn> retained = new ArrayList<>(turns);
+            retained.sort(Comparator.comparingLong(turn -> turn.timestamp));
+            if (retained.size() > count) {
+                retained = new ArrayList<>(retained.subList(retained.size() - count, retained.size()));
+            }
+            turns.clear();
+            keys.clear();
+            postings.clear();
+            for (IndexedTurn turn : retained) {
+                keys.add(turn.key());
+                append(turn);
+            }
+        }
+
+        private void append(IndexedTurn turn) {
+            int docId = turns.size();
+            turns.add(turn);
+            for (String term : tokenize(turn.text)) {
+                postings.computeIfAbsent(term, t -> new PostingList()).add(docId);
+            }
+        }
+
+        private List<TranscriptSearchHitDTO> search(List<String> terms, int limit) {
+            lock.readLock().lock();
+            try {
+                PostingList[] lists = new PostingList[terms.size()];
+                for (int i = 0; i < lists.length; i++) {
+                    lists[i] = postings.get(terms.get(i));
+                    if (lists[i] == null) {
+                        return Collections.emptyList();
+                    }
+                }
+                // Walk the shortest list from newest to oldest and probe the others
+                Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+                List<TranscriptSearchHitDTO> hits = new ArrayList<>();
+                for (int i = lists[0].size - 1; i >= 0 && hits.size() < limit; i--) {
+                    int docId = lists[0].docIds[i];
+                    boolean matchesAll = true;
+                    for (int j = 1; j < lists.length && matchesAll; j++) {
+                        matchesAll = lists[j].contains(docId);
+                    }
+                    if (matchesAll) {
+                        IndexedTurn turn = turns.get(docId);
+                        hits.add(TranscriptSearchHitDTO.builder()
+                                .conversationId(turn.conversationId)
+                                .timestamp(turn.timestamp)
+                                .requestId(turn.requestId)
+                                .type(turn.type)
+                                .snippet(snippet(turn.text, terms.get(0)))
+                                .build());
+                    }
+                }
+                return hits;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            lock.readLock().lock();
+            try {
+                out.writeInt(turns.size());
+                for (IndexedTurn turn : turns) {
+                    out.writeUTF(turn.conversationId);
+                    out.writeLong(turn.timestamp);
+                    out.writeUTF(turn.requestId != null ? turn.requestId : "");
+                    out.writeUTF(turn.type != null ? turn.type : "");
+                    byte[] text = turn.text.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(text.length);
+                    out.write(text);
+                }
+                out.writeInt(postings.size());
+                for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                    PostingList list = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(list.size);
+                    for (int i = 0; i < list.size; i++) {
+                        out.writeInt(list.docIds[i]);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static UserPartition read(DataInputStream in) throws IOException {
+            UserPartition partition = new UserPartition();
+            int turnCount = in.readInt();
+            for (int i = 0; i < turnCount; i++) {
+                String conversationId = in.readUTF();
+                long timestamp = in.readLong();
+                String requestId = in.readUTF();
+                String type = in.readUTF();
+                byte[] text = new byte[in.readInt()];
+                in.readFully(text);
+                IndexedTurn turn = new IndexedTurn(conversationId, timestamp,
+                        requestId.isEmpty() ? null : requestId, type.isEmpty() ? null : type,
+                        new String(text, StandardCharsets.UTF_8));
+                partition.turns.add(turn);
+                partition.keys.add(turn.key());
+            }
+            int termCount = in.readInt();
+            for (int i = 0; i < termCount; i++) {
+                String term = in.readUTF();
+                PostingList list = new PostingList();
+                list.size = in.readInt();
+                list.docIds = new int[Math.max(4, list.size)];
+                for (int j = 0; j < list.size; j++) {
+                    list.docIds[j] = in.readInt();
+                }
+                partition.postings.put(term, list);
+            }
+            return partition;
+        }
+    }
+}
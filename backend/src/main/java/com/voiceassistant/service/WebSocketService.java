@@ -3,11 +3,21 @@ package com.voiceassistant.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
- * Service for sending WebSocket messages to connected clients
+ * Service for sending WebSocket messages to connected clients.
+ * Every event goes to the JSON topic; clients that subscribe to the same topic with a
+ * "/cbor" suffix additionally receive a compact CBOR encoding as binary frames.
  */
 @Slf4j
 @Service
@@ -16,9 +26,25 @@ public class WebSocketService {
     
     private final SimpMessagingTemplate messagingTemplate;
     private final ObjectMapper objectMapper;
+    private final WebSocketSubscriptionRegistry subscriptionRegistry;
+    private final CompactEventEncoder compactEventEncoder;
     
     private static final String CONVERSATION_TOPIC = "/topic/conversation/%s";
     private static final String USER_TOPIC = "/topic/user/%s";
+    private static final String BINARY_SUFFIX = "/cbor";
+    private static final int MAX_TRACKED_TRANSCRIPTS = 10_000;
+    
+    // requestId -> transcript stream state, used to send transcription updates as deltas
+    private final Map<String, TranscriptStream> transcriptStreams = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, TranscriptStream> eldest) {
+                return size() > MAX_TRACKED_TRANSCRIPTS;
+            }
+        });
+    
+    @Value("${voice-assistant.websocket.full-transcript-every:10}")
+    private int fullTranscriptEvery;
     
     /**
      * Send a message to a specific conversation topic
@@ -30,7 +56,7 @@ public class WebSocketService {
         try {
             String destination = String.format(CONVERSATION_TOPIC, conversationId);
             log.debug("Sending WebSocket message to {}: {}", destination, payload);
-            messagingTemplate.convertAndSend(destination, payload);
+            publish(destination, payload);
         } catch (Exception e) {
             log.error("Error sending WebSocket message to conversation {}: {}", conversationId, e.getMessage(), e);
         }
@@ -46,26 +72,49 @@ public class WebSocketService {
         try {
             String destination = String.format(USER_TOPIC, userId);
             log.debug("Sending WebSocket message to {}: {}", destination, payload);
-            messagingTemplate.convertAndSend(destination, payload);
+            publish(destination, payload);
         } catch (Exception e) {
             log.error("Error sending WebSocket message to user {}: {}", userId, e.getMessage(), e);
         }
     }
     
     /**
-     * Send a transcription update to a conversation
+     * Send a transcription update to a conversation. Usually only the text appended since
+     * the previous update for the same request is sent: clients append {@code delta} at
+     * {@code offset}, and an offset of 0 replaces the transcript. Updates carry a per-request
+     * {@code seq}; the full text is resent after someone subscribes to the conversation and
+     * every few updates, so a client that joined late or missed a sequence number waits for
+     * the next offset-0 update to resynchronise.
      *
      * @param conversationId The conversation ID
      * @param requestId The request ID
-     * @param transcript The transcript text
+     * @param transcript The full transcript text so far
      */
     public void sendTranscriptionUpdate(String conversationId, String requestId, String transcript) {
-        sendToConversation(conversationId, Map.of(
-            "type", "TRANSCRIPTION_UPDATE",
-            "requestId", requestId,
-            "transcript", transcript,
-            "timestamp", System.currentTimeMillis()
-        ));
+        String destination = String.format(CONVERSATION_TOPIC, conversationId);
+        long subscribeStamp = Math.max(subscriptionRegistry.lastSubscribeStamp(destination),
+            subscriptionRegistry.lastSubscribeStamp(destination + BINARY_SUFFIX));
+        TranscriptStream stream = transcriptStreams.computeIfAbsent(requestId, id -> new TranscriptStream());
+        
+        // Sequence assignment and publishing happen under one lock so offsets reach the broker in order
+        synchronized (stream) {
+            boolean resync = stream.text == null
+                || !transcript.startsWith(stream.text)
+                || subscribeStamp != stream.subscribeStamp
+                || stream.sequence % Math.max(1, fullTranscriptEvery) == 0;
+            int offset = resync ? 0 : stream.text.length();
+            stream.text = transcript;
+            stream.subscribeStamp = subscribeStamp;
+            stream.sequence++;
+            sendToConversation(conversationId, Map.of(
+                "type", "TRANSCRIPTION_UPDATE",
+                "requestId", requestId,
+                "seq", stream.sequence,
+                "offset", offset,
+                "delta", transcript.substring(offset),
+                "timestamp", System.currentTimeMillis()
+            ));
+        }
     }
     
     /**
@@ -77,6 +126,7 @@ public class WebSocketService {
      * @param audioUrl The URL to the audio file
      */
     public void sendAIResponse(String conversationId, String requestId, String response, String audioUrl) {
+        transcriptStreams.remove(requestId);
         sendToConversation(conversationId, Map.of(
             "type", "AI_RESPONSE",
             "requestId", requestId,
@@ -94,6 +144,7 @@ public class WebSocketService {
      * @param errorMessage The error message
      */
     public void sendError(String conversationId, String requestId, String errorMessage) {
+        transcriptStreams.remove(requestId);
         sendToConversation(conversationId, Map.of(
             "type", "ERROR",
             "requestId", requestId,
@@ -101,4 +152,29 @@ public class WebSocketService {
             "timestamp", System.currentTimeMillis()
         ));
     }
-}
\ No newline at end of file
+    
+    @SuppressWarnings("unchecked")
+    private void publish(String destination, Object payload) {
+        messagingTemplate.convertAndSend(destination, payload);
+        
+        String binaryDestination = destination + BINARY_SUFFIX;
+        if (subscriptionRegistry.hasSubscribers(binaryDestination)) {
+            Map<String, Object> event = payload instanceof Map
+                ? (Map<String, Object>) payload
+                : objectMapper.convertValue(payload, Map.class);
+            
+            // An octet-stream content type makes the STOMP handler emit a binary frame
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+            headers.setNativeHeader("encoding", "cbor");
+            headers.setLeaveMutable(true);
+            messagingTemplate.convertAndSend(binaryDestination, compactEventEncoder.encode(event), headers.getMessageHeaders());
+        }
+    }
+    
+    private static final class TranscriptStream {
+        private String text;
+        private long sequence;
+        private long subscribeStamp;
+    }
+}
@@ -0,0 +1,88 @@
+package com.voiceassistant.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks live STOMP subscriptions per destination so encodings nobody has asked for
+ * are never produced
+ */
+@Slf4j
+@Component
+public class WebSocketSubscriptionRegistry {
+
+    // sessionId -> (subscriptionId -> destination)
+    private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Integer> subscriberCounts = new ConcurrentHashMap<>();
+    // destination -> stamp of the most recent subscription, unique across destinations
+    private final Map<String, Long> subscribeStamps = new ConcurrentHashMap<>();
+    private final AtomicLong stampSequence = new AtomicLong();
+
+    /**
+     * @param destination The broker destination
+     * @return true if at least one session is subscribed to the destination
+     */
+    public boolean hasSubscribers(String destination) {
+        return subscriberCounts.containsKey(destination);
+    }
+
+    /**
+     * @param destination The broker destination
+     * @return A value that changes whenever a session subscribes to the destination, or 0
+     *         if nobody is subscribed
+     */
+    public long lastSubscribeStamp(String destination) {
+        return subscribeStamps.getOrDefault(destination, 0L);
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (accessor.getSessionId() == null || accessor.getSubscriptionId() == null || destination == null) {
+            return;
+        }
+        String previous = sessions.computeIfAbsent(accessor.getSessionId(), id -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), destination);
+        if (previous != null) {
+            release(previous);
+        }
+        subscriberCounts.merge(destination, 1, Integer::sum);
+        subscribeStamps.put(destination, stampSequence.incrementAndGet());
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+        if (subscriptions != null && accessor.getSubscriptionId() != null) {
+            String destination = subscriptions.remove(accessor.getSubscriptionId());
+            if (destination != null) {
+                release(destination);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    private void release(String destination) {
+        if (subscriberCounts.computeIfPresent(destination, (key, count) -> count > 1 ? count - 1 : null) == null) {
+            subscribeStamps.remove(destination);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.voiceassistant.transcription;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Speech-to-text engine running inside the backend
+ */
+public interface Transcriber {
+
+    /**
+     * @return Short engine name used in logs and metrics
+     */
+    String getName();
+
+    /**
+     * @param audio Parsed WAV audio
+     * @return true if this engine can transcribe the audio's format
+     */
+    boolean supports(WavAudio audio);
+
+    /**
+     * Transcribe an utterance asynchronously
+     *
+     * @param audio Parsed WAV audio in a supported format
+     * @return The transcript; completes exceptionally if the engine is saturated or fails.
+     *         Callers cancel it when they stop waiting, and engines should then skip the work.
+     */
+    CompletableFuture<String> transcribe(WavAudio audio);
+
+    /**
+     * @param audio Parsed WAV audio in a supported format
+     * @return Estimated milliseconds until the transcript would be ready if the audio were submitted
+     *         now, including queued work ahead of it; 0 if the engine cannot estimate it
+     */
+    default long estimatedCompletionMillis(WavAudio audio) {
+        return 0;
+    }
+}
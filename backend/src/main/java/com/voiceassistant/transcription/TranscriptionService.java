@@ -0,0 +1,107 @@
+package com.voiceassistant.transcription;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Chooses between in-process transcription and the remote path. Short utterances in a
+ * format a local {@link Transcriber} supports are transcribed in the JVM; everything else,
+ * and any local failure or timeout, is left to the voice processing Lambda, which
+ * transcribes remotely with Nova Sonic as before.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TranscriptionService {
+
+    private final ObjectProvider<Transcriber> transcriberProvider;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${voice-assistant.transcription.local.max-duration-ms:5000}")
+    private long maxLocalDurationMillis;
+
+    @Value("${voice-assistant.transcription.local.timeout-ms:1500}")
+    private long localTimeoutMillis;
+
+    /**
+     * Try to transcribe audio in-process
+     *
+     * @param audioData Base64 encoded WAV audio
+     * @return The transcript, or empty when remote transcription should be used
+     */
+    public Optional<String> transcribeLocally(String audioData) {
+        List<Transcriber> transcribers = transcriberProvider.orderedStream().collect(Collectors.toList());
+        if (transcribers.isEmpty()) {
+            return Optional.empty();
+        }
+
+        WavAudio audio;
+        try {
+            audio = WavAudio.parse(Base64.getDecoder().decode(audioData));
+        } catch (IllegalArgumentException e) {
+            log.debug("Audio not eligible for local transcription: {}", e.getMessage());
+            return Optional.empty();
+        }
+        if (audio.getDurationMillis() > maxLocalDurationMillis) {
+            return fallback("too-long");
+        }
+
+        boolean backlogged = false;
+        for (Transcriber transcriber : transcribers) {
+            if (!transcriber.supports(audio)) {
+                continue;
+            }
+            // Queueing behind a backlog that outlasts the timeout would only delay the remote path
+            if (transcriber.estimatedCompletionMillis(audio) > localTimeoutMillis) {
+                backlogged = true;
+                continue;
+            }
+            long start = System.nanoTime();
+            CompletableFuture<String> pending = transcriber.transcribe(audio);
+            try {
+                String transcript = pending.get(localTimeoutMillis, TimeUnit.MILLISECONDS);
+                timer(transcriber.getName(), "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (!transcript.isBlank()) {
+                    return Optional.of(transcript);
+                }
+                return fallback("empty");
+            } catch (InterruptedException e) {
+                pending.cancel(false);
+                Thread.currentThread().interrupt();
+                return fallback("interrupted");
+            } catch (Exception e) {
+                // Completing the abandoned utterance lets a worker skip it instead of decoding
+                // audio nobody is waiting for
+                pending.cancel(false);
+                timer(transcriber.getName(), "failure").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.warn("Local transcription with {} failed, falling back to remote: {}", transcriber.getName(), e.toString());
+            }
+        }
+        return fallback(backlogged ? "backlog" : "unsupported-or-failed");
+    }
+
+    private Optional<String> fallback(String reason) {
+        meterRegistry.counter("transcription.remote.fallback", "reason", reason).increment();
+        return Optional.empty();
+    }
+
+    private Timer timer(String engine, String outcome) {
+        return Timer.builder("transcription.local")
+                .tag("engine", engine)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
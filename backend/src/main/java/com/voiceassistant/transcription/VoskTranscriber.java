@@ -0,0 +1,187 @@
+package com.voiceassistant.transcription;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.vosk.LibVosk;
+import org.vosk.LogLevel;
+import org.vosk.Model;
+import org.vosk.Recognizer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-JVM speech-to-text on the CPU using a Vosk (Kaldi) model. The model is loaded once
+ * and shared; each worker thread owns a recognizer that is reset between utterances.
+ * Workers drain queued utterances in batches so bursts of short commands are handled
+ * back to back without per-request hand-off or recognizer setup. The audio still queued
+ * and the observed real-time factor give callers an estimate of how long a new utterance
+ * would wait, so they can go remote instead of queueing behind a backlog.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "voice-assistant.transcription.engine", havingValue = "local")
+public class VoskTranscriber implements Transcriber {
+
+    private static final int CHUNK_BYTES = 8192;
+    private static final double REAL_TIME_FACTOR_WEIGHT = 0.2;
+
+    private final ObjectMapper objectMapper;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private BlockingQueue<Utterance> queue;
+    private Model model;
+    private final AtomicLong pendingAudioMillis = new AtomicLong();
+    // Recognition time per millisecond of audio, smoothed; 0 until the first utterance completes
+    private volatile double realTimeFactor;
+
+    @Value("${voice-assistant.transcription.local.model-path}")
+    private String modelPath;
+
+    @Value("${voice-assistant.transcription.local.workers:0}")
+    private int workerCount;
+
+    @Value("${voice-assistant.transcription.local.batch-size:8}")
+    private int batchSize;
+
+    @Value("${voice-assistant.transcription.local.queue-capacity:0}")
+    private int queueCapacity;
+
+    @Value("${voice-assistant.transcription.local.sample-rate:16000}")
+    private int sampleRate;
+
+    @PostConstruct
+    public void start() throws IOException {
+        LibVosk.setLogLevel(LogLevel.WARNINGS);
+        long start = System.currentTimeMillis();
+        model = new Model(modelPath);
+        log.info("Loaded speech model from {} in {} ms", modelPath, System.currentTimeMillis() - start);
+
+        int threads = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        // By default about one batch per worker: deeper queues only hold work that would time out
+        queue = new LinkedBlockingQueue<>(queueCapacity > 0 ? queueCapacity : threads * batchSize);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::runWorker, "vosk-transcriber-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        workers.forEach(Thread::interrupt);
+        for (Thread worker : workers) {
+            worker.join(5000);
+        }
+        model.close();
+    }
+
+    @Override
+    public String getName() {
+        return "vosk";
+    }
+
+    @Override
+    public boolean supports(WavAudio audio) {
+        return audio.getSampleRate() == sampleRate && audio.getChannels() == 1 && audio.getBitsPerSample() == 16;
+    }
+
+    @Override
+    public CompletableFuture<String> transcribe(WavAudio audio) {
+        Utterance utterance = new Utterance(audio);
+        pendingAudioMillis.addAndGet(audio.getDurationMillis());
+        if (!queue.offer(utterance)) {
+            pendingAudioMillis.addAndGet(-audio.getDurationMillis());
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Local transcription queue is full"));
+        }
+        return utterance.result;
+    }
+
+    /**
+     * Queued and in-progress audio shared across the workers, plus the new audio itself,
+     * scaled by the observed real-time factor
+     */
+    @Override
+    public long estimatedCompletionMillis(WavAudio audio) {
+        double aheadMillis = (double) pendingAudioMillis.get() / workers.size();
+        return (long) ((aheadMillis + audio.getDurationMillis()) * realTimeFactor);
+    }
+
+    private void runWorker() {
+        try (Recognizer recognizer = new Recognizer(model, sampleRate)) {
+            byte[] chunk = new byte[CHUNK_BYTES];
+            List<Utterance> batch = new ArrayList<>(batchSize);
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                for (Utterance utterance : batch) {
+                    // Callers that gave up cancelled the future and fell back to remote transcription
+                    if (!utterance.result.isDone()) {
+                        recognize(recognizer, chunk, utterance);
+                    }
+                    pendingAudioMillis.addAndGet(-utterance.audio.getDurationMillis());
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Local transcription worker {} stopped: {}", Thread.currentThread().getName(), e.getMessage(), e);
+        }
+    }
+
+    private void recognize(Recognizer recognizer, byte[] chunk, Utterance utterance) {
+        try {
+            WavAudio audio = utterance.audio;
+            long start = System.nanoTime();
+            recognizer.reset();
+            int end = audio.getPcmOffset() + audio.getPcmLength();
+            for (int position = audio.getPcmOffset(); position < end; position += CHUNK_BYTES) {
+                if (utterance.result.isDone()) {
+                    return; // Abandoned mid-utterance
+                }
+                int length = Math.min(CHUNK_BYTES, end - position);
+                System.arraycopy(audio.getData(), position, chunk, 0, length);
+                recognizer.acceptWaveForm(chunk, length);
+            }
+            String text = objectMapper.readTree(recognizer.getFinalResult()).path("text").asText("");
+            utterance.result.complete(text);
+            recordRealTimeFactor(System.nanoTime() - start, audio.getDurationMillis());
+        } catch (Exception e) {
+            utterance.result.completeExceptionally(e);
+        }
+    }
+
+    // Workers may race on the update; an occasionally lost sample does not matter for an estimate
+    private void recordRealTimeFactor(long elapsedNanos, long audioMillis) {
+        if (audioMillis <= 0) {
+            return;
+        }
+        double sample = elapsedNanos / 1_000_000.0 / audioMillis;
+        double current = realTimeFactor;
+        realTimeFactor = current == 0 ? sample : current + REAL_TIME_FACTOR_WEIGHT * (sample - current);
+    }
+
+    private static final class Utterance {
+        private final WavAudio audio;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private Utterance(WavAudio audio) {
+            this.audio = audio;
+        }
+    }
+}
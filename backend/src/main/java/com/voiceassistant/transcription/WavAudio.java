@@ -0,0 +1,117 @@
+package com.voiceassistant.transcription;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal RIFF/WAVE reader exposing the PCM format and the location of the sample data
+ */
+public final class WavAudio {
+
+    private final byte[] data;
+    private final int sampleRate;
+    private final int channels;
+    private final int bitsPerSample;
+    private final int pcmOffset;
+    private final int pcmLength;
+
+    private WavAudio(byte[] data, int sampleRate, int channels, int bitsPerSample, int pcmOffset, int pcmLength) {
+        this.data = data;
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        this.bitsPerSample = bitsPerSample;
+        this.pcmOffset = pcmOffset;
+        this.pcmLength = pcmLength;
+    }
+
+    /**
+     * Parse a WAV file. Input comes from clients, so every malformed file is reported as an
+     * {@link IllegalArgumentException}. Chunk sizes are read as unsigned; a data chunk whose
+     * size runs past the end of the file (as written by streaming encoders) is clamped.
+     *
+     * @param data Complete WAV file
+     * @return Parsed audio
+     * @throws IllegalArgumentException if the data is not a well-formed uncompressed PCM WAV file
+     */
+    public static WavAudio parse(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.length < 12 || !"RIFF".equals(chunkId(buffer, 0)) || !"WAVE".equals(chunkId(buffer, 8))) {
+            throw new IllegalArgumentException("Not a RIFF/WAVE file");
+        }
+
+        int sampleRate = 0;
+        int channels = 0;
+        int bitsPerSample = 0;
+        int position = 12;
+        while (position + 8 <= data.length) {
+            String id = chunkId(buffer, position);
+            long size = Integer.toUnsignedLong(buffer.getInt(position + 4));
+            int body = position + 8;
+            long remaining = data.length - body;
+            if ("data".equals(id)) {
+                if (sampleRate == 0) {
+                    throw new IllegalArgumentException("WAV data chunk precedes fmt chunk");
+                }
+                int length = (int) Math.min(size, remaining);
+                return new WavAudio(data, sampleRate, channels, bitsPerSample, body, length);
+            }
+            if (size > remaining) {
+                throw new IllegalArgumentException("WAV '" + id + "' chunk extends past the end of the file");
+            }
+            if ("fmt ".equals(id)) {
+                if (size < 16) {
+                    throw new IllegalArgumentException("WAV fmt chunk is truncated");
+                }
+                if (buffer.getShort(body) != 1) {
+                    throw new IllegalArgumentException("Only uncompressed PCM WAV is supported");
+                }
+                channels = Short.toUnsignedInt(buffer.getShort(body + 2));
+                sampleRate = buffer.getInt(body + 4);
+                bitsPerSample = Short.toUnsignedInt(buffer.getShort(body + 14));
+                if (channels == 0 || sampleRate <= 0 || bitsPerSample == 0) {
+                    throw new IllegalArgumentException("Invalid WAV format: " + channels + " channels, "
+                            + sampleRate + " Hz, " + bitsPerSample + " bits per sample");
+                }
+            }
+            // Chunks are word aligned; a pad byte past the end simply ends the walk
+            position = (int) Math.min(data.length, body + size + (size & 1));
+        }
+        throw new IllegalArgumentException("WAV file has no data chunk");
+    }
+
+    private static String chunkId(ByteBuffer buffer, int offset) {
+        byte[] id = new byte[4];
+        buffer.get(offset, id);
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+
+    public long getDurationMillis() {
+        long bytesPerSecond = (long) sampleRate * channels * bitsPerSample / 8;
+        return bytesPerSecond == 0 ? 0 : pcmLength * 1000L / bytesPerSecond;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getPcmOffset() {
+        return pcmOffset;
+    }
+
+    public int getPcmLength() {
+        return pcmLength;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getBitsPerSample() {
+        return bitsPerSample;
+    }
+}
@@ -0,0 +1,215 @@
+package com.voiceassistant.loadtest;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory stand-in for {@link DynamoDbClient} covering single-item reads and writes and
+ * key-condition queries, which is what the conversation and session tables need.
+ */
+public class InMemoryDynamoDbClient implements DynamoDbClient {
+
+    private static final int MAX_PAGE_ITEMS = 100;
+    private static final Pattern KEY_CONDITION = Pattern.compile("(#?\\w+)\\s*(<=|>=|=|<|>)\\s*(:\\w+)");
+
+    private final Map<String, List<String>> keySchemas;
+    private final Map<String, Map<String, Map<String, AttributeValue>>> tables = new ConcurrentHashMap<>();
+    private final LatencyModel latency;
+
+    /**
+     * @param keySchemas Table name to key attribute names (partition key first, then optional sort key)
+     * @param latency Artificial latency and error distribution
+     */
+    public InMemoryDynamoDbClient(Map<String, List<String>> keySchemas, LatencyModel latency) {
+        this.keySchemas = keySchemas;
+        this.latency = latency;
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest request) {
+        latency.apply(this::simulatedError);
+        table(request.tableName()).put(key(request.tableName(), request.item()), Map.copyOf(request.item()));
+        return PutItemResponse.builder().build();
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        latency.apply(this::simulatedError);
+        Map<String, AttributeValue> item = table(request.tableName()).get(key(request.tableName(), request.key()));
+        return item != null ? GetItemResponse.builder().item(item).build() : GetItemResponse.builder().build();
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(DeleteItemRequest request) {
+        latency.apply(this::simulatedError);
+        table(request.tableName()).remove(key(request.tableName(), request.key()));
+        return DeleteItemResponse.builder().build();
+    }
+
+    /**
+     * Supports a key condition of the form {@code pk = :value}, optionally followed by
+     * {@code AND sk <op> :value} with one of {@code = < <= > >=}. Results are ordered by the sort
+     * key, honour {@code ScanIndexForward}, and are paged by {@code Limit} (capped at
+     * {@value #MAX_PAGE_ITEMS} items, standing in for the 1 MB page limit) with
+     * {@code ExclusiveStartKey} and {@code LastEvaluatedKey}.
+     */
+    @Override
+    public QueryResponse query(QueryRequest request) {
+        latency.apply(this::simulatedError);
+        List<String> schema = schema(request.tableName());
+        String expression = request.keyConditionExpression();
+        String[] conditions = expression.split("(?i)\\s+AND\\s+");
+        if (conditions.length > 2) {
+            throw new UnsupportedOperationException("Unsupported key condition: " + expression);
+        }
+
+        Matcher partition = KEY_CONDITION.matcher(conditions[0].trim());
+        if (!partition.matches() || !"=".equals(partition.group(2))) {
+            throw new UnsupportedOperationException("Unsupported key condition: " + expression);
+        }
+        String partitionAttribute = attributeName(request, partition.group(1));
+        AttributeValue partitionValue = request.expressionAttributeValues().get(partition.group(3));
+        Predicate<Map<String, AttributeValue>> matches = item -> partitionValue.equals(item.get(partitionAttribute));
+
+        if (conditions.length > 1) {
+            Matcher sort = KEY_CONDITION.matcher(conditions[1].trim());
+            if (!sort.matches()) {
+                throw new UnsupportedOperationException("Unsupported key condition: " + expression);
+            }
+            String sortAttribute = attributeName(request, sort.group(1));
+            AttributeValue bound = request.expressionAttributeValues().get(sort.group(3));
+            IntPredicate accepts = comparison(sort.group(2));
+            matches = matches.and(item -> item.get(sortAttribute) != null
+                    && accepts.test(compareValues(item.get(sortAttribute), bound)));
+        }
+
+        Comparator<Map<String, AttributeValue>> order = (a, b) -> 0;
+        if (schema.size() > 1) {
+            String sortAttribute = schema.get(1);
+            order = (a, b) -> compareValues(a.get(sortAttribute), b.get(sortAttribute));
+        }
+        if (Boolean.FALSE.equals(request.scanIndexForward())) {
+            order = order.reversed();
+        }
+
+        Stream<Map<String, AttributeValue>> candidates = table(request.tableName()).values().stream()
+                .filter(matches)
+                .sorted(order);
+        if (request.hasExclusiveStartKey() && !request.exclusiveStartKey().isEmpty()) {
+            Map<String, AttributeValue> startKey = request.exclusiveStartKey();
+            Comparator<Map<String, AttributeValue>> pageOrder = order;
+            candidates = candidates.filter(item -> pageOrder.compare(item, startKey) > 0);
+        }
+
+        int pageSize = request.limit() != null ? Math.min(request.limit(), MAX_PAGE_ITEMS) : MAX_PAGE_ITEMS;
+        List<Map<String, AttributeValue>> items = candidates
+                .limit(pageSize + 1L)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        QueryResponse.Builder response = QueryResponse.builder();
+        if (items.size() > pageSize) {
+            items.remove(items.size() - 1);
+            response.lastEvaluatedKey(keyAttributes(schema, items.get(items.size() - 1)));
+        }
+        return response.items(items).count(items.size()).scannedCount(items.size()).build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        tables.clear();
+    }
+
+    private Map<String, Map<String, AttributeValue>> table(String tableName) {
+        schema(tableName);
+        return tables.computeIfAbsent(tableName, name -> new ConcurrentHashMap<>());
+    }
+
+    private List<String> schema(String tableName) {
+        List<String> schema = keySchemas.get(tableName);
+        if (schema == null) {
+            throw ResourceNotFoundException.builder().statusCode(400)
+                    .message("Requested resource not found: Table: " + tableName + " not found").build();
+        }
+        return schema;
+    }
+
+    private static String attributeName(QueryRequest request, String name) {
+        return name.startsWith("#") ? request.expressionAttributeNames().get(name) : name;
+    }
+
+    private static IntPredicate comparison(String operator) {
+        switch (operator) {
+            case "=": return c -> c == 0;
+            case "<": return c -> c < 0;
+            case "<=": return c -> c <= 0;
+            case ">": return c -> c > 0;
+            case ">=": return c -> c >= 0;
+            default: throw new UnsupportedOperationException("Unsupported key comparison: " + operator);
+        }
+    }
+
+    private static Map<String, AttributeValue> keyAttributes(List<String> schema, Map<String, AttributeValue> item) {
+        Map<String, AttributeValue> key = new HashMap<>();
+        for (String attribute : schema) {
+            key.put(attribute, item.get(attribute));
+        }
+        return key;
+    }
+
+    private String key(String tableName, Map<String, AttributeValue> item) {
+        return schema(tableName).stream()
+                .map(attribute -> keyValue(item.get(attribute)))
+                .collect(Collectors.joining("#"));
+    }
+
+    private static String keyValue(AttributeValue value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.n() != null) {
+            return value.n();
+        }
+        return value.s() != null ? value.s() : value.toString();
+    }
+
+    private static int compareValues(AttributeValue a, AttributeValue b) {
+        if (a != null && b != null && a.n() != null && b.n() != null) {
+            return new BigDecimal(a.n()).compareTo(new BigDecimal(b.n()));
+        }
+        return keyValue(a).compareTo(keyValue(b));
+    }
+
+    private RuntimeException simulatedError() {
+        return ProvisionedThroughputExceededException.builder().statusCode(400)
+                .message("Simulated throughput exceeded").build();
+    }
+}
@@ -0,0 +1,203 @@
+package com.voiceassistant.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voiceassistant.service.WebSocketService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.lambda.model.InvocationType;
+import software.amazon.awssdk.services.lambda.model.InvokeRequest;
+import software.amazon.awssdk.services.lambda.model.InvokeResponse;
+import software.amazon.awssdk.services.lambda.model.TooManyRequestsException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory stand-in for {@link LambdaClient}. Synchronous calls to the voice processing
+ * function answer the way the real handler does, including the INPUT turn written to the
+ * conversation table and the answer from the stored turn when a request ID is retried. The
+ * Bedrock integration step is then simulated by storing a synthetic response in S3, writing
+ * the OUTPUT turn and pushing an AI_RESPONSE event.
+ */
+@Slf4j
+public class InMemoryLambdaClient implements LambdaClient {
+
+    private static final byte[] SYNTHETIC_MP3 = new byte[8 * 1024];
+    private static final String SYNTHETIC_RESPONSE = "Synthetic response for load testing.";
+
+    private final ObjectMapper objectMapper;
+    private final LatencyModel transcriptionLatency;
+    private final LatencyModel bedrockLatency;
+    private final InMemoryS3Client s3Client;
+    private final String audioBucket;
+    private final DynamoDbClient dynamoDbClient;
+    private final String conversationTable;
+    private final ObjectProvider<WebSocketService> webSocketService;
+    private final ScheduledExecutorService responseScheduler = Executors.newScheduledThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "loadtest-bedrock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InMemoryLambdaClient(ObjectMapper objectMapper, LatencyModel transcriptionLatency, LatencyModel bedrockLatency,
+                                InMemoryS3Client s3Client, String audioBucket,
+                                DynamoDbClient dynamoDbClient, String conversationTable,
+                                ObjectProvider<WebSocketService> webSocketService) {
+        this.objectMapper = objectMapper;
+        this.transcriptionLatency = transcriptionLatency;
+        this.bedrockLatency = bedrockLatency;
+        this.s3Client = s3Client;
+        this.audioBucket = audioBucket;
+        this.dynamoDbClient = dynamoDbClient;
+        this.conversationTable = conversationTable;
+        this.webSocketService = webSocketService;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public InvokeResponse invoke(InvokeRequest request) {
+        transcriptionLatency.apply(() -> TooManyRequestsException.builder()
+                .statusCode(429).message("Simulated Lambda throttle").build());
+
+        if (request.invocationType() == InvocationType.EVENT) {
+            return InvokeResponse.builder().statusCode(202).build();
+        }
+
+        try {
+            Map<String, Object> event = objectMapper.readValue(request.payload().asByteArray(), Map.class);
+            Object rawBody = event.get("body");
+            Map<String, Object> body = rawBody instanceof String
+                    ? objectMapper.readValue((String) rawBody, Map.class)
+                    : (Map<String, Object>) rawBody;
+
+            String retryRequestId = (String) body.get("requestId");
+            String requestId = retryRequestId != null ? retryRequestId : UUID.randomUUID().toString();
+            String userId = (String) body.get("userId");
+            String conversationId = body.get("conversationId") != null
+                    ? (String) body.get("conversationId")
+                    : UUID.randomUUID().toString();
+
+            Map<String, Object> responseBody = new HashMap<>();
+            responseBody.put("requestId", requestId);
+            responseBody.put("conversationId", conversationId);
+
+            Map<String, AttributeValue> existing = retryRequestId != null && body.get("conversationId") != null
+                    ? findInputTurn(conversationId, retryRequestId)
+                    : null;
+            if (existing != null) {
+                responseBody.put("message", "Audio already processed");
+                responseBody.put("timestamp", Long.parseLong(existing.get("timestamp").n()));
+                responseBody.put("transcript", existing.get("transcript").s());
+                responseBody.put("duplicate", true);
+            } else {
+                String transcript = body.get("transcript") != null
+                        ? (String) body.get("transcript")
+                        : "synthetic transcript for request " + requestId;
+                long timestamp = System.currentTimeMillis();
+                Map<String, AttributeValue> item = new HashMap<>();
+                item.put("conversationId", AttributeValue.fromS(conversationId));
+                item.put("timestamp", AttributeValue.fromN(String.valueOf(timestamp)));
+                item.put("userId", AttributeValue.fromS(userId));
+                item.put("requestId", AttributeValue.fromS(requestId));
+                item.put("status", AttributeValue.fromS("TRANSCRIBED"));
+                item.put("type", AttributeValue.fromS("INPUT"));
+                item.put("audioS3Path", AttributeValue.fromS(body.get("s3Key") != null
+                        ? (String) body.get("s3Key")
+                        : String.format("input/%s/%s/%s.wav", userId, conversationId, requestId)));
+                item.put("transcript", AttributeValue.fromS(transcript));
+                item.put("transcriptionSource", AttributeValue.fromS(body.get("transcript") != null ? "local" : "nova-sonic"));
+                if (body.get("sessionId") != null) {
+                    item.put("sessionId", AttributeValue.fromS((String) body.get("sessionId")));
+                }
+                dynamoDbClient.putItem(PutItemRequest.builder().tableName(conversationTable).item(item).build());
+
+                scheduleAIResponse(userId, conversationId, requestId);
+
+                responseBody.put("message", "Audio processed successfully");
+                responseBody.put("timestamp", timestamp);
+                responseBody.put("transcript", transcript);
+            }
+
+            Map<String, Object> response = Map.of(
+                "statusCode", 200,
+                "body", objectMapper.writeValueAsString(responseBody)
+            );
+            return InvokeResponse.builder()
+                    .statusCode(200)
+                    .payload(SdkBytes.fromByteArray(objectMapper.writeValueAsBytes(response)))
+                    .build();
+        } catch (Exception e) {
+            log.error("Error simulating Lambda function {}: {}", request.functionName(), e.getMessage(), e);
+            return InvokeResponse.builder()
+                    .statusCode(200)
+                    .functionError("Unhandled")
+                    .payload(SdkBytes.fromUtf8String("{\"errorMessage\":\"" + e.getMessage() + "\"}"))
+                    .build();
+        }
+    }
+
+    private void scheduleAIResponse(String userId, String conversationId, String requestId) {
+        responseScheduler.schedule(() -> {
+            String key = String.format("output/%s/%s/%s-response.mp3", userId, conversationId, requestId);
+            s3Client.putBytes(audioBucket, key, SYNTHETIC_MP3, "audio/mpeg");
+            dynamoDbClient.putItem(PutItemRequest.builder().tableName(conversationTable).item(Map.of(
+                    "conversationId", AttributeValue.fromS(conversationId),
+                    "timestamp", AttributeValue.fromN(String.valueOf(System.currentTimeMillis())),
+                    "userId", AttributeValue.fromS(userId),
+                    "requestId", AttributeValue.fromS(requestId + "-response"),
+                    "type", AttributeValue.fromS("OUTPUT"),
+                    "text", AttributeValue.fromS(SYNTHETIC_RESPONSE),
+                    "audioS3Path", AttributeValue.fromS(key),
+                    "status", AttributeValue.fromS("COMPLETED"))).build());
+            webSocketService.getObject().sendAIResponse(conversationId, requestId,
+                    SYNTHETIC_RESPONSE,
+                    String.format("https://%s.s3.amazonaws.com/%s", audioBucket, key));
+        }, bedrockLatency.sampleMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private Map<String, AttributeValue> findInputTurn(String conversationId, String requestId) {
+        Map<String, AttributeValue> exclusiveStartKey = null;
+        do {
+            QueryResponse response = dynamoDbClient.query(QueryRequest.builder()
+                    .tableName(conversationTable)
+                    .keyConditionExpression("conversationId = :cid")
+                    .expressionAttributeValues(Map.of(":cid", AttributeValue.fromS(conversationId)))
+                    .exclusiveStartKey(exclusiveStartKey)
+                    .build());
+            for (Map<String, AttributeValue> item : response.items()) {
+                if ("INPUT".equals(keyString(item.get("type"))) && requestId.equals(keyString(item.get("requestId")))) {
+                    return item;
+                }
+            }
+            exclusiveStartKey = response.hasLastEvaluatedKey() && !response.lastEvaluatedKey().isEmpty()
+                    ? response.lastEvaluatedKey() : null;
+        } while (exclusiveStartKey != null);
+        return null;
+    }
+
+    private static String keyString(AttributeValue value) {
+        return value != null ? value.s() : null;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        responseScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,126 @@
+package com.voiceassistant.loadtest;
+
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for {@link S3Client} covering the operations used by {@code S3Service}
+ */
+public class InMemoryS3Client implements S3Client {
+
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final LatencyModel latency;
+
+    public InMemoryS3Client(LatencyModel latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest request, RequestBody body) {
+        latency.apply(this::simulatedError);
+        try (InputStream in = body.contentStreamProvider().newStream()) {
+            objects.put(path(request.bucket(), request.key()), new StoredObject(in.readAllBytes(), request.contentType()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return PutObjectResponse.builder().eTag(Integer.toHexString(request.key().hashCode())).build();
+    }
+
+    /**
+     * Store an object directly, bypassing simulated latency (used by other stand-ins)
+     */
+    public void putBytes(String bucket, String key, byte[] data, String contentType) {
+        objects.put(path(bucket, key), new StoredObject(data, contentType));
+    }
+
+    @Override
+    public <ReturnT> ReturnT getObject(GetObjectRequest request,
+                                       ResponseTransformer<GetObjectResponse, ReturnT> transformer) {
+        latency.apply(this::simulatedError);
+        StoredObject object = find(request.bucket(), request.key());
+        GetObjectResponse response = GetObjectResponse.builder()
+                .contentLength((long) object.data.length)
+                .contentType(object.contentType)
+                .build();
+        try {
+            return transformer.transform(response, AbortableInputStream.create(new ByteArrayInputStream(object.data)));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to transform in-memory S3 object", e);
+        }
+    }
+
+    @Override
+    public ResponseInputStream<GetObjectResponse> getObject(GetObjectRequest request) {
+        return getObject(request, ResponseTransformer.toInputStream());
+    }
+
+    @Override
+    public ResponseBytes<GetObjectResponse> getObjectAsBytes(GetObjectRequest request) {
+        return getObject(request, ResponseTransformer.toBytes());
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest request) {
+        latency.apply(this::simulatedError);
+        StoredObject object = find(request.bucket(), request.key());
+        return HeadObjectResponse.builder()
+                .contentLength((long) object.data.length)
+                .contentType(object.contentType)
+                .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        objects.clear();
+    }
+
+    private StoredObject find(String bucket, String key) {
+        StoredObject object = objects.get(path(bucket, key));
+        if (object == null) {
+            throw NoSuchKeyException.builder().statusCode(404).message("The specified key does not exist: " + key).build();
+        }
+        return object;
+    }
+
+    private RuntimeException simulatedError() {
+        return S3Exception.builder().statusCode(503).message("Simulated S3 slow down").build();
+    }
+
+    private static String path(String bucket, String key) {
+        return bucket + "/" + key;
+    }
+
+    private static final class StoredObject {
+        private final byte[] data;
+        private final String contentType;
+
+        private StoredObject(byte[] data, String contentType) {
+            this.data = data;
+            this.contentType = contentType;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.voiceassistant.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Artificial latency and error distribution for an in-memory AWS stand-in.
+ * Latency is log-normal, parameterised by its median and p99 so it can be read
+ * straight off a production latency dashboard.
+ */
+public class LatencyModel {
+
+    private static final double Z_99 = 2.326;
+
+    private final double medianMillis;
+    private final double sigma;
+    private final double errorRate;
+
+    public LatencyModel(double medianMillis, double p99Millis, double errorRate) {
+        this.medianMillis = Math.max(0, medianMillis);
+        this.sigma = medianMillis > 0 && p99Millis > medianMillis ? Math.log(p99Millis / medianMillis) / Z_99 : 0;
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * @return A latency sample in milliseconds
+     */
+    public long sampleMillis() {
+        if (medianMillis == 0) {
+            return 0;
+        }
+        return Math.round(medianMillis * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    /**
+     * Block for a sampled latency, then fail with the given probability
+     *
+     * @param error Factory for the exception thrown on a simulated failure
+     */
+    public void apply(Supplier<? extends RuntimeException> error) {
+        long delay = sampleMillis();
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw error.get();
+            }
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            throw error.get();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.voiceassistant.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every latency sample per endpoint so exact tail percentiles can be reported
+ */
+public class LatencyRecorder {
+
+    private final Map<String, Samples> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long elapsedNanos) {
+        samples(endpoint).add(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+    }
+
+    public void recordError(String endpoint) {
+        samples(endpoint).error();
+    }
+
+    /**
+     * @return A fixed-width table with count, errors, p50, p99, p999 and max per endpoint
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(String.format("%n%-36s %9s %7s %10s %10s %10s %10s%n",
+                "endpoint", "count", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        new TreeMap<>(endpoints).forEach((endpoint, samples) -> {
+            long[] sorted = samples.sorted();
+            report.append(String.format("%-36s %9d %7d %10.1f %10.1f %10.1f %10.1f%n",
+                    endpoint, sorted.length, samples.errors(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1000.0));
+        });
+        return report.toString();
+    }
+
+    private Samples samples(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, name -> new Samples());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.min(sorted.length - 1, Math.max(0, index))] / 1000.0;
+    }
+
+    private static final class Samples {
+        private long[] micros = new long[1024];
+        private int size;
+        private long errors;
+
+        private synchronized void add(long value) {
+            if (size == micros.length) {
+                micros = Arrays.copyOf(micros, size * 2);
+            }
+            micros[size++] = value;
+        }
+
+        private synchronized void error() {
+            errors++;
+        }
+
+        private synchronized long errors() {
+            return errors;
+        }
+
+        private synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(micros, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.voiceassistant.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the running backend with simulated voice clients. Each client opens a STOMP
+ * WebSocket session, subscribes to its conversation topic, then repeatedly posts synthetic
+ * WAV audio to the process endpoint and waits for the matching AI_RESPONSE event.
+ * Per-endpoint p50/p99/p999 latencies are logged when the run completes.
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+@ConditionalOnProperty(name = "voice-assistant.loadtest.driver.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class LoadGenerator implements CommandLineRunner {
+
+    private static final String PROCESS_ENDPOINT = "POST /api/voice/process";
+    private static final String SUBSCRIBE_ENDPOINT = "WS /ws connect+subscribe";
+    private static final String RESPONSE_ENDPOINT = "AI_RESPONSE end-to-end";
+
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final ConfigurableApplicationContext applicationContext;
+
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final Map<String, CompletableFuture<Long>> pendingResponses = new ConcurrentHashMap<>();
+
+    @Value("${voice-assistant.loadtest.driver.target-url:}")
+    private String targetUrl;
+
+    @Value("${voice-assistant.loadtest.driver.clients:1000}")
+    private int clients;
+
+    @Value("${voice-assistant.loadtest.driver.duration-seconds:60}")
+    private long durationSeconds;
+
+    @Value("${voice-assistant.loadtest.driver.ramp-up-seconds:10}")
+    private long rampUpSeconds;
+
+    @Value("${voice-assistant.loadtest.driver.think-time-ms:2000}")
+    private long thinkTimeMillis;
+
+    @Value("${voice-assistant.loadtest.driver.audio-duration-ms:2000}")
+    private long audioDurationMillis;
+
+    @Value("${voice-assistant.loadtest.driver.response-timeout-ms:15000}")
+    private long responseTimeoutMillis;
+
+    @Value("${voice-assistant.loadtest.driver.exit-on-completion:true}")
+    private boolean exitOnCompletion;
+
+    @Override
+    public void run(String... args) throws Exception {
+        String baseUrl = targetUrl.isBlank()
+                ? "http://localhost:" + environment.getProperty("local.server.port", "8080")
+                : targetUrl;
+        String audioData = Base64.getEncoder().encodeToString(SyntheticAudio.sineWav(audioDurationMillis, 16000, 440));
+
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+                Runtime.getRuntime().availableProcessors());
+
+        log.info("Starting load test against {}: {} clients for {} s (ramp-up {} s)",
+                baseUrl, clients, durationSeconds, rampUpSeconds);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(rampUpSeconds + durationSeconds);
+
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            SimulatedClient client = new SimulatedClient(i, baseUrl, audioData, httpClient, stompClient, scheduler);
+            CompletableFuture<Void> run = new CompletableFuture<>();
+            scheduler.schedule(() -> client.start(deadline).whenComplete((ignored, error) -> run.complete(null)),
+                    TimeUnit.SECONDS.toMillis(rampUpSeconds) * i / clients, TimeUnit.MILLISECONDS);
+            runs.add(run);
+        }
+
+        CompletableFuture.allOf(runs.toArray(new CompletableFuture[0]))
+                .get(rampUpSeconds + durationSeconds + TimeUnit.MILLISECONDS.toSeconds(responseTimeoutMillis) + 60,
+                        TimeUnit.SECONDS);
+        scheduler.shutdownNow();
+        stompClient.stop();
+
+        log.info("Load test finished{}", recorder.report());
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    /**
+     * A single simulated voice client with its own user, session and conversation
+     */
+    private class SimulatedClient {
+
+        private final String userId;
+        private final String sessionId = UUID.randomUUID().toString();
+        private final String conversationId = UUID.randomUUID().toString();
+        private final String baseUrl;
+        private final String audioData;
+        private final HttpClient httpClient;
+        private final WebSocketStompClient stompClient;
+        private final Executor thinkTime;
+
+        SimulatedClient(int index, String baseUrl, String audioData, HttpClient httpClient,
+                        WebSocketStompClient stompClient, ScheduledExecutorService scheduler) {
+            this.userId = "loadtest-user-" + index;
+            this.baseUrl = baseUrl;
+            this.audioData = audioData;
+            this.httpClient = httpClient;
+            this.stompClient = stompClient;
+            this.thinkTime = CompletableFuture.delayedExecutor(thinkTimeMillis, TimeUnit.MILLISECONDS, scheduler);
+        }
+
+        CompletableFuture<Void> start(long deadline) {
+            return subscribe()
+                    .thenCompose(session -> loop(deadline).whenComplete((ignored, error) -> session.disconnect()))
+                    .exceptionally(error -> {
+                        log.debug("Simulated client {} stopped: {}", userId, error.getMessage());
+                        return null;
+                    });
+        }
+
+        private CompletableFuture<StompSession> subscribe() {
+            long start = System.nanoTime();
+            WebSocketHttpHeaders handshakeHeaders = new WebSocketHttpHeaders();
+            handshakeHeaders.setBearerAuth(userId);
+            String wsUrl = baseUrl.replaceFirst("^http", "ws") + "/ws/websocket";
+
+            return stompClient.connectAsync(wsUrl, handshakeHeaders, new StompHeaders(), new StompSessionHandlerAdapter() {})
+                    .thenApply(session -> {
+                        session.subscribe("/topic/conversation/" + conversationId, new ResponseFrameHandler());
+                        recorder.record(SUBSCRIBE_ENDPOINT, System.nanoTime() - start);
+                        return session;
+                    })
+                    .whenComplete((session, error) -> {
+                        if (error != null) {
+                            recorder.recordError(SUBSCRIBE_ENDPOINT);
+                        }
+                    });
+        }
+
+        private CompletableFuture<Void> loop(long deadline) {
+            if (System.nanoTime() > deadline) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return turn()
+                    .handle((ignored, error) -> null)
+                    .thenComposeAsync(ignored -> loop(deadline), thinkTime);
+        }
+
+        private CompletableFuture<Void> turn() {
+            long start = System.nanoTime();
+            HttpRequest request;
+            try {
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/voice/process"))
+                        .header("Authorization", "Bearer " + userId)
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofMillis(responseTimeoutMillis))
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of(
+                            "audioData", audioData,
+                            "userId", userId,
+                            "sessionId", sessionId,
+                            "conversationId", conversationId
+                        ))))
+                        .build();
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenCompose(response -> {
+                        if (response.statusCode() / 100 != 2) {
+                            recorder.recordError(PROCESS_ENDPOINT);
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        recorder.record(PROCESS_ENDPOINT, System.nanoTime() - start);
+                        return awaitResponse(response.body(), start);
+                    })
+                    .whenComplete((ignored, error) -> {
+                        if (error != null) {
+                            recorder.recordError(PROCESS_ENDPOINT);
+                        }
+                    });
+        }
+
+        @SuppressWarnings("unchecked")
+        private CompletableFuture<Void> awaitResponse(String body, long start) {
+            String requestId;
+            try {
+                requestId = (String) objectMapper.readValue(body, Map.class).get("requestId");
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            if (requestId == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return pendingResponses.computeIfAbsent(requestId, id -> new CompletableFuture<>())
+                    .orTimeout(responseTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .handle((arrival, error) -> {
+                        pendingResponses.remove(requestId);
+                        if (error != null) {
+                            recorder.recordError(RESPONSE_ENDPOINT);
+                        } else {
+                            recorder.record(RESPONSE_ENDPOINT, arrival - start);
+                        }
+                        return null;
+                    });
+        }
+    }
+
+    /**
+     * Completes the pending turn matching an AI_RESPONSE event. The event can beat the HTTP
+     * response, so whichever side arrives first creates the future.
+     */
+    private class ResponseFrameHandler implements StompFrameHandler {
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long arrival = System.nanoTime();
+            Map<?, ?> event = (Map<?, ?>) payload;
+            if ("AI_RESPONSE".equals(event.get("type")) && event.get("requestId") instanceof String requestId) {
+                pendingResponses.computeIfAbsent(requestId, id -> new CompletableFuture<>()).complete(arrival);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.voiceassistant.loadtest;
+
+import com.voiceassistant.VoiceAssistantApplication;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Starts the backend with the "loadtest" profile on the test classpath, which is the only place
+ * the in-memory stand-ins and the unverified token decoder exist. Run with
+ * {@code mvn spring-boot:test-run}.
+ */
+public class LoadTestApplication {
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(VoiceAssistantApplication.class);
+        application.setAdditionalProfiles("loadtest");
+        application.run(args);
+    }
+}
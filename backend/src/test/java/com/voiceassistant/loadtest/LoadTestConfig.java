@@ -0,0 +1,94 @@
+package com.voiceassistant.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voiceassistant.service.WebSocketService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import software.amazon.awssdk.services.lambda.LambdaClient;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the AWS SDK clients built in {@code AwsConfig} with in-memory stand-ins so the
+ * backend can be load tested without an AWS account. Active only under the "loadtest" profile.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfig {
+
+    @Value("${aws.s3.audio-bucket:voice-assistant-audio-storage}")
+    private String audioBucket;
+
+    @Value("${aws.dynamodb.conversation-table:ConversationTable}")
+    private String conversationTable;
+
+    @Value("${aws.dynamodb.user-session-table:UserSessionTable}")
+    private String userSessionTable;
+
+    @Bean
+    @Primary
+    public InMemoryS3Client loadTestS3Client(
+            @Value("${voice-assistant.loadtest.s3.median-ms:15}") double medianMillis,
+            @Value("${voice-assistant.loadtest.s3.p99-ms:80}") double p99Millis,
+            @Value("${voice-assistant.loadtest.s3.error-rate:0.001}") double errorRate) {
+        return new InMemoryS3Client(new LatencyModel(medianMillis, p99Millis, errorRate));
+    }
+
+    @Bean
+    @Primary
+    public LambdaClient loadTestLambdaClient(
+            ObjectMapper objectMapper,
+            InMemoryS3Client s3Client,
+            InMemoryDynamoDbClient dynamoDbClient,
+            ObjectProvider<WebSocketService> webSocketService,
+            @Value("${voice-assistant.loadtest.lambda.median-ms:900}") double medianMillis,
+            @Value("${voice-assistant.loadtest.lambda.p99-ms:3000}") double p99Millis,
+            @Value("${voice-assistant.loadtest.lambda.error-rate:0.005}") double errorRate,
+            @Value("${voice-assistant.loadtest.bedrock.median-ms:1200}") double bedrockMedianMillis,
+            @Value("${voice-assistant.loadtest.bedrock.p99-ms:4000}") double bedrockP99Millis) {
+        return new InMemoryLambdaClient(objectMapper,
+                new LatencyModel(medianMillis, p99Millis, errorRate),
+                new LatencyModel(bedrockMedianMillis, bedrockP99Millis, 0),
+                s3Client, audioBucket, dynamoDbClient, conversationTable, webSocketService);
+    }
+
+    @Bean
+    @Primary
+    public InMemoryDynamoDbClient loadTestDynamoDbClient(
+            @Value("${voice-assistant.loadtest.dynamodb.median-ms:5}") double medianMillis,
+            @Value("${voice-assistant.loadtest.dynamodb.p99-ms:25}") double p99Millis,
+            @Value("${voice-assistant.loadtest.dynamodb.error-rate:0.0005}") double errorRate) {
+        return new InMemoryDynamoDbClient(Map.of(
+                conversationTable, List.of("conversationId", "timestamp"),
+                userSessionTable, List.of("sessionId")
+        ), new LatencyModel(medianMillis, p99Millis, errorRate));
+    }
+
+    /**
+     * Accepts any bearer token without verification and uses its value as the subject.
+     * Never enable the "loadtest" profile on an internet-facing deployment.
+     */
+    @Bean
+    @Primary
+    public JwtDecoder loadTestJwtDecoder() {
+        return token -> {
+            Instant now = Instant.now();
+            return Jwt.withTokenValue(token)
+                    .header("alg", "none")
+                    .subject(token)
+                    .issuedAt(now)
+                    .expiresAt(now.plusSeconds(3600))
+                    .build();
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.voiceassistant.loadtest;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Generates synthetic WAV audio for load testing
+ */
+public final class SyntheticAudio {
+
+    private SyntheticAudio() {
+    }
+
+    /**
+     * Build a 16-bit mono PCM WAV file containing a sine tone
+     *
+     * @param durationMillis Length of the clip
+     * @param sampleRate Samples per second, e.g. 16000
+     * @param frequency Tone frequency in Hz
+     * @return WAV file bytes including the RIFF header
+     */
+    public static byte[] sineWav(long durationMillis, int sampleRate, double frequency) {
+        int samples = (int) (sampleRate * durationMillis / 1000);
+        int dataSize = samples * 2;
+        ByteBuffer wav = ByteBuffer.allocate(44 + dataSize).order(ByteOrder.LITTLE_ENDIAN);
+
+        wav.put("RIFF".getBytes()).putInt(36 + dataSize).put("WAVE".getBytes());
+        wav.put("fmt ".getBytes()).putInt(16)
+                .putShort((short) 1)              // PCM
+                .putShort((short) 1)              // mono
+                .putInt(sampleRate)
+                .putInt(sampleRate * 2)           // byte rate
+                .putShort((short) 2)              // block align
+                .putShort((short) 16);            // bits per sample
+        wav.put("data".getBytes()).putInt(dataSize);
+
+        for (int i = 0; i < samples; i++) {
+            wav.putShort((short) (Math.sin(2 * Math.PI * frequency * i / sampleRate) * Short.MAX_VALUE * 0.3));
+        }
+        return wav.array();
+    }
+}
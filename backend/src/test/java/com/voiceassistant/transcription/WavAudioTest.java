@@ -0,0 +1,124 @@
+package com.voiceassistant.transcription;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class WavAudioTest {
+
+    @Test
+    void parsesPcmFormatAndDataLocation() {
+        byte[] wav = riff(fmtChunk(1, 1, 16000, 16), chunk("data", new byte[32000]));
+
+        WavAudio audio = WavAudio.parse(wav);
+
+        assertEquals(16000, audio.getSampleRate());
+        assertEquals(1, audio.getChannels());
+        assertEquals(16, audio.getBitsPerSample());
+        assertEquals(44, audio.getPcmOffset());
+        assertEquals(32000, audio.getPcmLength());
+        assertEquals(1000, audio.getDurationMillis());
+    }
+
+    @Test
+    void skipsUnknownChunksIncludingPadByte() {
+        byte[] wav = riff(fmtChunk(1, 1, 16000, 16), chunk("LIST", new byte[3]), chunk("data", new byte[8]));
+
+        WavAudio audio = WavAudio.parse(wav);
+
+        assertEquals(8, audio.getPcmLength());
+    }
+
+    @Test
+    void clampsDataChunkSizedForStreaming() {
+        byte[] wav = riff(fmtChunk(1, 1, 16000, 16), chunkWithSize("data", 0xFFFFFFFF, new byte[100]));
+
+        assertEquals(100, WavAudio.parse(wav).getPcmLength());
+    }
+
+    @Test
+    void rejectsNegativeChunkSizeWithoutLooping() {
+        byte[] wav = riff(chunkWithSize("JUNK", -8, new byte[0]), fmtChunk(1, 1, 16000, 16));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> assertThrows(IllegalArgumentException.class, () -> WavAudio.parse(wav)));
+    }
+
+    @Test
+    void rejectsChunkExtendingPastEndOfFile() {
+        byte[] wav = riff(chunkWithSize("JUNK", 1000, new byte[4]));
+
+        assertThrows(IllegalArgumentException.class, () -> WavAudio.parse(wav));
+    }
+
+    @Test
+    void rejectsTruncatedFmtChunk() {
+        byte[] fmt = fmtChunk(1, 1, 16000, 16);
+        byte[] truncated = Arrays.copyOf(riff(fmt), 12 + 8 + 6);
+
+        assertThrows(IllegalArgumentException.class, () -> WavAudio.parse(truncated));
+        assertThrows(IllegalArgumentException.class,
+                () -> WavAudio.parse(riff(chunk("fmt ", new byte[4]), chunk("data", new byte[8]))));
+    }
+
+    @Test
+    void rejectsInvalidFormats() {
+        assertThrows(IllegalArgumentException.class,
+                () -> WavAudio.parse(riff(fmtChunk(3, 1, 16000, 32), chunk("data", new byte[8]))));
+        assertThrows(IllegalArgumentException.class,
+                () -> WavAudio.parse(riff(fmtChunk(1, 0, 16000, 16), chunk("data", new byte[8]))));
+        assertThrows(IllegalArgumentException.class,
+                () -> WavAudio.parse(riff(chunk("data", new byte[8]), fmtChunk(1, 1, 16000, 16))));
+        assertThrows(IllegalArgumentException.class, () -> WavAudio.parse(riff(fmtChunk(1, 1, 16000, 16))));
+    }
+
+    @Test
+    void rejectsNonWavInput() {
+        assertThrows(IllegalArgumentException.class, () -> WavAudio.parse(new byte[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> WavAudio.parse("RIFF\0\0\0\0AVI LIST".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] riff(byte[]... chunks) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes("WAVE".getBytes(StandardCharsets.US_ASCII));
+        for (byte[] chunk : chunks) {
+            body.writeBytes(chunk);
+        }
+        return chunkWithSize("RIFF", body.size(), body.toByteArray());
+    }
+
+    private static byte[] fmtChunk(int format, int channels, int sampleRate, int bitsPerSample) {
+        int blockAlign = channels * bitsPerSample / 8;
+        ByteBuffer fmt = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN)
+                .putShort((short) format)
+                .putShort((short) channels)
+                .putInt(sampleRate)
+                .putInt(sampleRate * blockAlign)
+                .putShort((short) blockAlign)
+                .putShort((short) bitsPerSample);
+        return chunk("fmt ", fmt.array());
+    }
+
+    private static byte[] chunk(String id, byte[] body) {
+        byte[] padded = body.length % 2 == 0 ? body : Arrays.copyOf(body, body.length + 1);
+        return chunkWithSize(id, body.length, padded);
+    }
+
+    private static byte[] chunkWithSize(String id, int size, byte[] body) {
+        return ByteBuffer.allocate(8 + body.length).order(ByteOrder.LITTLE_ENDIAN)
+                .put(id.getBytes(StandardCharsets.US_ASCII))
+                .putInt(size)
+                .put(body)
+                .array();
+    }
+}
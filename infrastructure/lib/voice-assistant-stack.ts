@@ -176,6 +176,8 @@ export class VoiceAssistantStack extends cdk.Stack {
       environment: {
         CONVERSATION_TABLE: conversationTable.tableName,
         REGION: cdk.Stack.of(this).region,
+        SPECULATION_ENABLED: 'false',
+        SPECULATION_STABLE_MS: '300',
       },
       vpc,
       role: bedrockRole,